@@ -0,0 +1,77 @@
+package com.ecommerce.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and verification as done on every login and authenticated
+ * request. {@code claimsCache=false} measures full HMAC verification,
+ * {@code true} the {@link JwtClaimsCache} hit path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(3)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+
+    private static final String EMAIL = "bench@example.com";
+
+    @Param({"false", "true"})
+    public boolean claimsCache;
+
+    private AnnotationConfigApplicationContext context;
+    private JwtUtil jwtUtil;
+    private UUID userId;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        // Wire the real beans so @Value and @PostConstruct run as in the service
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", Map.of(
+                "jwt.secret", "mySecretKey123456789012345678901234567890",
+                "jwt.expiration", "86400000",
+                "jwt.cache.enabled", String.valueOf(claimsCache))));
+        context.registerBean(SimpleMeterRegistry.class);
+        context.register(JwtClaimsCache.class, JwtDenylist.class, JwtUtil.class);
+        context.refresh();
+
+        jwtUtil = context.getBean(JwtUtil.class);
+        userId = UUID.randomUUID();
+        token = jwtUtil.generateToken(userId, EMAIL);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(userId, EMAIL);
+    }
+
+    @Benchmark
+    public String getUserIdFromToken() {
+        return jwtUtil.getUserIdFromToken(token);
+    }
+}
@@ -0,0 +1,87 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.model.Payment;
+import com.ecommerce.model.Payment.PaymentStatus;
+import com.ecommerce.model.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to response DTO mapping and JSON serialization, paid on every
+ * user and payment response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(3)
+@State(Scope.Benchmark)
+public class DtoMappingBenchmark {
+
+    private User user;
+    private Payment payment;
+    private UserResponse userResponse;
+    private PaymentResponse paymentResponse;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+
+        user = new User("bench@example.com", "{bcrypt}$2a$10$hash", "John", "Doe");
+        user.setId(UUID.randomUUID());
+        user.setPhone("+1234567890");
+        user.setAddress("123 Main St, City, State");
+        user.setLoyaltyPoints(120);
+        user.setCreatedAt(now);
+        user.setUpdatedAt(now);
+
+        payment = new Payment("user-1", new BigDecimal("29.99"), "USD", "CreditCard", "order-1");
+        payment.setId(42L);
+        payment.setStatus(PaymentStatus.SUCCESS);
+        payment.setTransactionId("TXN_0123456789ABCDEF");
+        payment.setCreatedAt(now);
+        payment.setUpdatedAt(now);
+
+        userResponse = new UserResponse(user);
+        paymentResponse = PaymentResponse.success("Payment processed successfully", payment);
+        // Same builder Spring MVC uses for its message converter
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public UserResponse newUserResponse() {
+        return new UserResponse(user);
+    }
+
+    @Benchmark
+    public PaymentResponse paymentResponseSuccess() {
+        return PaymentResponse.success("Payment processed successfully", payment);
+    }
+
+    @Benchmark
+    public byte[] serializeUserResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(userResponse);
+    }
+
+    @Benchmark
+    public byte[] serializePaymentResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(paymentResponse);
+    }
+}
@@ -0,0 +1,142 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.Payment;
+import com.ecommerce.model.Payment.PaymentStatus;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payment inserts through {@link PaymentRepository#saveAll} with the
+ * payment-service's JPA settings from its application.yml: pooled
+ * {@code payments_seq} ids and JDBC batching with rewritten inserts.
+ * {@code jdbcBatchSize=1} turns batching off for comparison. Scores are per
+ * payment. Only the JPA slice of the service is started.
+ *
+ * <p>Needs a database, so it is not part of the default run. It starts an
+ * embedded Postgres (which refuses to run as root) unless
+ * {@code -Dpayments.jdbc-url} points at a scratch database; the payment
+ * tables there are written to. See {@code scripts/bench-payment-inserts.sh}.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(3)
+@State(Scope.Benchmark)
+public class PaymentInsertBenchmark {
+
+    // Payments per saveAll, one flush each
+    private static final int PAYMENTS_PER_CALL = 50;
+
+    @Param({"50", "1"})
+    public int jdbcBatchSize;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private PaymentRepository paymentRepository;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        String url = System.getProperty("payments.jdbc-url");
+        String username = System.getProperty("payments.username", "payment_service");
+        String password = System.getProperty("payments.password", "payment_password");
+        if (url == null) {
+            postgres = EmbeddedPostgres.builder().start();
+            try (Connection connection = postgres.getPostgresDatabase().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("CREATE DATABASE payments_db");
+            }
+            url = postgres.getJdbcUrl("postgres", "payments_db");
+            username = "postgres";
+            password = "postgres";
+        }
+
+        // The service's application.yml, with only the connection and batch size
+        // overridden (as arguments, which take precedence over the file)
+        context = new SpringApplicationBuilder(PaymentPersistence.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + url,
+                        "--spring.datasource.username=" + username,
+                        "--spring.datasource.password=" + password,
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize,
+                        "--logging.level.root=WARN",
+                        // The service logs every statement at DEBUG
+                        "--logging.level.org.hibernate.SQL=WARN");
+        paymentRepository = context.getBean(PaymentRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAYMENTS_PER_CALL)
+    public List<Payment> saveAll() {
+        List<Payment> payments = new ArrayList<>(PAYMENTS_PER_CALL);
+        for (int i = 0; i < PAYMENTS_PER_CALL; i++) {
+            Payment payment = new Payment("bench_user", new BigDecimal("19.99"), "USD", "CreditCard",
+                    UUID.randomUUID().toString());
+            payment.setTransactionId(UUID.randomUUID().toString());
+            payment.setStatus(PaymentStatus.SUCCESS);
+            payment.setPaymentDetails("Card: ****4242");
+            payments.add(payment);
+        }
+        return transactionTemplate.execute(status -> paymentRepository.saveAll(payments));
+    }
+
+    // Just the payments table; the user-service shares these packages in the benchmark jar
+    @Configuration
+    @ImportAutoConfiguration({DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+            TransactionAutoConfiguration.class})
+    @EnableJpaRepositories(basePackageClasses = PaymentRepository.class, includeFilters =
+            @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = PaymentRepository.class))
+    static class PaymentPersistence {
+
+        @Bean
+        PersistenceManagedTypes persistenceManagedTypes() {
+            return PersistenceManagedTypes.of(Payment.class.getName());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.PaymentRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-payment string work in {@link PaymentService}, run for every stored
+ * payment.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(3)
+@State(Scope.Benchmark)
+public class PaymentServiceBenchmark {
+
+    private PaymentRequest.PaymentDetails details;
+
+    @Setup
+    public void setUp() {
+        details = new PaymentRequest.PaymentDetails();
+        details.setCardNumber("4111111111111111");
+        details.setCardHolder("John Doe");
+        details.setExpiryMonth("12");
+        details.setExpiryYear("2030");
+        details.setCvv("123");
+    }
+
+    @Benchmark
+    public String maskPaymentDetails() {
+        return PaymentService.maskPaymentDetails(details);
+    }
+
+    @Benchmark
+    public String generateTransactionId() {
+        return PaymentService.generateTransactionId();
+    }
+}
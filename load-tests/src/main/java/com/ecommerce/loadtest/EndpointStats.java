@@ -0,0 +1,135 @@
+package com.ecommerce.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and outcome counts for one endpoint (or the whole workflow).
+ *
+ * Worker threads record into a {@link Recorder}; the reporter thread swaps out
+ * an interval histogram once per tick, appends it to {@code <name>.hlog} and
+ * folds it into the run total. Latencies are recorded in microseconds.
+ */
+final class EndpointStats {
+
+    enum Outcome {
+        OK,
+        // The gateway stand-in declined the payment; an expected business result
+        DECLINED,
+        ERROR
+    }
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    final String name;
+
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    private final LongAdder intervalErrors = new LongAdder();
+    private final LongAdder intervalDeclined = new LongAdder();
+
+    private final Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    private long errors;
+    private long declined;
+    private Histogram interval;
+    private HistogramLogWriter log;
+    private long logBaseTime;
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    void record(long startNanos, Outcome outcome) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        recorder.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+        if (outcome == Outcome.ERROR) {
+            intervalErrors.increment();
+        } else if (outcome == Outcome.DECLINED) {
+            intervalDeclined.increment();
+        }
+    }
+
+    /**
+     * Starts the interval log; called once, when the warm-up ends.
+     */
+    void startLog(Path outputDir, long startMillis) throws IOException {
+        log = new HistogramLogWriter(new PrintStream(Files.newOutputStream(outputDir.resolve(name + ".hlog"))));
+        log.outputComment("Latency of " + name + " in microseconds, max column in milliseconds");
+        log.outputLogFormatVersion();
+        log.outputStartTime(startMillis);
+        log.setBaseTime(startMillis);
+        log.outputLegend();
+        logBaseTime = startMillis;
+    }
+
+    /**
+     * Swaps out the current interval. It is logged and added to the total
+     * only while measuring; warm-up intervals are dropped.
+     */
+    void tick(boolean measuring) {
+        interval = recorder.getIntervalHistogram(interval);
+        long intervalErrorCount = intervalErrors.sumThenReset();
+        long intervalDeclinedCount = intervalDeclined.sumThenReset();
+        if (!measuring) {
+            return;
+        }
+        total.add(interval);
+        errors += intervalErrorCount;
+        declined += intervalDeclinedCount;
+        log.outputIntervalHistogram(
+                (interval.getStartTimeStamp() - logBaseTime) / 1000.0,
+                (interval.getEndTimeStamp() - logBaseTime) / 1000.0,
+                interval,
+                MICROS_PER_MILLI);
+    }
+
+    void close() {
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    /**
+     * Writes the run's percentile distribution to {@code <name>.hgrm}, in
+     * milliseconds, for HdrHistogram's plotter.
+     */
+    void writeDistribution(Path outputDir) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(outputDir.resolve(name + ".hgrm")))) {
+            total.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        }
+    }
+
+    long requests() {
+        return total.getTotalCount();
+    }
+
+    long errors() {
+        return errors;
+    }
+
+    long declined() {
+        return declined;
+    }
+
+    double errorRate() {
+        long requests = requests();
+        return requests == 0 ? 0 : (double) errors / requests;
+    }
+
+    double percentileMillis(double percentile) {
+        return total.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+
+    double maxMillis() {
+        return total.getMaxValue() / MICROS_PER_MILLI;
+    }
+}
@@ -0,0 +1,118 @@
+package com.ecommerce.loadtest;
+
+import com.ecommerce.proto.InventoryProto.GetProductRequest;
+import com.ecommerce.proto.InventoryProto.Product;
+import com.ecommerce.proto.InventoryProto.ProductResponse;
+import com.ecommerce.proto.InventoryProto.ReleaseRequest;
+import com.ecommerce.proto.InventoryProto.ReleaseResponse;
+import com.ecommerce.proto.InventoryProto.ReserveRequest;
+import com.ecommerce.proto.InventoryProto.ReserveResponse;
+import com.ecommerce.proto.InventoryProto.StockRequest;
+import com.ecommerce.proto.InventoryProto.StockResponse;
+import com.ecommerce.proto.InventoryServiceGrpc;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.stub.StreamObserver;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory stand-in for the Node inventory service, so the gateway's
+ * purchase route can be loaded without MongoDB. Every product exists with
+ * effectively unlimited stock; reservations are only kept to answer
+ * ReleaseStock.
+ *
+ * Runs inside the load test, or on its own:
+ * {@code java -cp load-tests.jar com.ecommerce.loadtest.InventoryStubServer [port]}
+ */
+public final class InventoryStubServer implements AutoCloseable {
+
+    static final String PRODUCT_ID = "load-test-product";
+
+    private static final int STOCK = 1_000_000;
+
+    private final Server server;
+
+    private InventoryStubServer(Server server) {
+        this.server = server;
+    }
+
+    static InventoryStubServer start(int port) throws IOException {
+        Server server = NettyServerBuilder.forPort(port)
+                .addService(new InventoryService())
+                .build()
+                .start();
+        return new InventoryStubServer(server);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        server.shutdown();
+        if (!server.awaitTermination(5, TimeUnit.SECONDS)) {
+            server.shutdownNow();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 9092;
+        InventoryStubServer stub = start(port);
+        System.out.println("Inventory stub listening on port " + port);
+        stub.server.awaitTermination();
+    }
+
+    private static final class InventoryService extends InventoryServiceGrpc.InventoryServiceImplBase {
+
+        private final Map<String, Integer> reservations = new ConcurrentHashMap<>();
+
+        @Override
+        public void checkStock(StockRequest request, StreamObserver<StockResponse> responseObserver) {
+            responseObserver.onNext(StockResponse.newBuilder()
+                    .setAvailable(request.getQuantity() <= STOCK)
+                    .setCurrentStock(STOCK)
+                    .build());
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public void reserveStock(ReserveRequest request, StreamObserver<ReserveResponse> responseObserver) {
+            String reservationId = UUID.randomUUID().toString();
+            reservations.put(reservationId, request.getQuantity());
+            responseObserver.onNext(ReserveResponse.newBuilder()
+                    .setSuccess(true)
+                    .setReservationId(reservationId)
+                    .setReservedQuantity(request.getQuantity())
+                    .build());
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public void releaseStock(ReleaseRequest request, StreamObserver<ReleaseResponse> responseObserver) {
+            Integer quantity = reservations.remove(request.getReservationId());
+            responseObserver.onNext(ReleaseResponse.newBuilder()
+                    .setSuccess(quantity != null)
+                    .setReleasedQuantity(quantity != null ? quantity : 0)
+                    .setMessage(quantity != null ? "Stock released" : "Reservation not found")
+                    .build());
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public void getProduct(GetProductRequest request, StreamObserver<ProductResponse> responseObserver) {
+            responseObserver.onNext(ProductResponse.newBuilder()
+                    .setSuccess(true)
+                    .setProduct(Product.newBuilder()
+                            .setId(request.getProductId())
+                            .setName("Load test product")
+                            .setPrice(29.99)
+                            .setCategory("load-test")
+                            .setStockQuantity(STOCK)
+                            .setSku("LOAD-TEST"))
+                    .build());
+            responseObserver.onCompleted();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.ecommerce.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load test for the purchase workflow. Each of {@code --concurrency} workers
+ * runs {@link PurchaseWorkflow} back to back; after {@code --warmup} seconds
+ * latencies are recorded for {@code --duration} seconds.
+ *
+ * Back to back, a slow response also delays the requests that would have been
+ * sent meanwhile, so their wait never shows up in the latencies (coordinated
+ * omission). With {@code --rate} passes are instead scheduled at that fixed
+ * rate, spread over the workers, and timed from when they were due rather than
+ * when a worker got to them. Use enough workers to sustain the rate.
+ *
+ * Per endpoint, the output directory gets an interval log ({@code .hlog}) and
+ * a percentile distribution ({@code .hgrm}), both HdrHistogram formats, plus a
+ * {@code summary.txt} with the table printed at the end.
+ *
+ * Usage: {@code java -jar load-tests.jar --concurrency=64 --duration=120 --environment=embedded}
+ * (see {@link LoadTestOptions} for all options)
+ */
+public final class LoadTest {
+
+    private static final Duration REPORT_INTERVAL = Duration.ofSeconds(1);
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        Files.createDirectories(options.outputDir);
+
+        LocalEnvironment environment = options.environment == LoadTestOptions.Environment.RUNNING
+                ? null
+                : LocalEnvironment.start(options);
+        try {
+            run(options);
+        } finally {
+            if (environment != null) {
+                environment.close();
+            }
+        }
+    }
+
+    private static void run(LoadTestOptions options) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        PurchaseWorkflow workflow = new PurchaseWorkflow(client, options);
+        Map<String, EndpointStats> stats = workflow.stats();
+        workflow.seed();
+
+        System.out.printf("Running %d workers%s: %ds warm-up, %ds measured%n",
+                options.concurrency, options.rate > 0 ? String.format(" at %.1f passes/s", options.rate) : "",
+                options.warmup.toSeconds(), options.duration.toSeconds());
+
+        long start = System.nanoTime();
+        long warmupEnd = start + options.warmup.toNanos();
+        long end = warmupEnd + options.duration.toNanos();
+
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < options.concurrency; i++) {
+            int index = i;
+            Thread worker = new Thread(() -> runWorker(workflow, options, index, start, end), "load-worker-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+
+        // Warm-up intervals are swapped out and dropped, so the measured
+        // window starts with empty recorders
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        reporter.scheduleAtFixedRate(() -> stats.values().forEach(s -> s.tick(false)),
+                REPORT_INTERVAL.toMillis(), REPORT_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        TimeUnit.NANOSECONDS.sleep(warmupEnd - System.nanoTime());
+        reporter.shutdown();
+        reporter.awaitTermination(5, TimeUnit.SECONDS);
+
+        long measureStartMillis = System.currentTimeMillis();
+        long measureStartNanos = System.nanoTime();
+        for (EndpointStats endpoint : stats.values()) {
+            endpoint.tick(false);
+            endpoint.startLog(options.outputDir, measureStartMillis);
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor();
+        reporter.scheduleAtFixedRate(() -> {
+            stats.values().forEach(s -> s.tick(true));
+            EndpointStats total = workflow.passStats();
+            System.out.printf("  %5ds  %8d passes  %6d errors%n",
+                    TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - measureStartNanos),
+                    total.requests(), total.errors());
+        }, REPORT_INTERVAL.toMillis(), REPORT_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        reporter.shutdown();
+        reporter.awaitTermination(5, TimeUnit.SECONDS);
+        // Requests that finished after the last tick
+        stats.values().forEach(s -> s.tick(true));
+        double seconds = (System.nanoTime() - measureStartNanos) / 1e9;
+
+        for (EndpointStats endpoint : stats.values()) {
+            endpoint.close();
+            endpoint.writeDistribution(options.outputDir);
+        }
+        String summary = summary(options, stats, seconds);
+        System.out.println();
+        System.out.print(summary);
+        Files.writeString(options.outputDir.resolve("summary.txt"), summary, StandardCharsets.UTF_8);
+        System.out.println("Histograms written to " + options.outputDir.toAbsolutePath());
+    }
+
+    // Private helper methods
+
+    private static void runWorker(PurchaseWorkflow workflow, LoadTestOptions options, int index,
+            long start, long end) {
+        if (options.rate <= 0) {
+            while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+                workflow.runOnce(System.nanoTime());
+            }
+            return;
+        }
+        // Worker i takes passes i, i + concurrency, i + 2 * concurrency, ... of the schedule
+        double passNanos = TimeUnit.SECONDS.toNanos(1) / options.rate;
+        for (long pass = index; !Thread.currentThread().isInterrupted(); pass += options.concurrency) {
+            long scheduled = start + (long) (pass * passNanos);
+            // Passes still queued when the run ends are dropped, not drained
+            if (scheduled >= end || System.nanoTime() >= end) {
+                return;
+            }
+            long wait;
+            while ((wait = scheduled - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            workflow.runOnce(scheduled);
+        }
+    }
+
+    private static String summary(LoadTestOptions options, Map<String, EndpointStats> stats, double seconds) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (PrintStream out = new PrintStream(buffer, true, StandardCharsets.UTF_8)) {
+            out.printf("Scenario %s, concurrency %d, %s, measured %.1fs (after %ds warm-up)%n",
+                    options.scenario.name().toLowerCase(), options.concurrency,
+                    options.rate > 0 ? String.format("target %.1f passes/s", options.rate) : "back to back",
+                    seconds, options.warmup.toSeconds());
+            out.printf("%-10s %10s %9s %8s %8s %10s %9s %9s %9s %9s%n",
+                    "endpoint", "requests", "req/s", "errors", "err %", "declined",
+                    "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+            for (EndpointStats endpoint : stats.values()) {
+                out.printf("%-10s %10d %9.1f %8d %8.2f %10d %9.2f %9.2f %9.2f %9.2f%n",
+                        endpoint.name,
+                        endpoint.requests(),
+                        endpoint.requests() / seconds,
+                        endpoint.errors(),
+                        endpoint.errorRate() * 100,
+                        endpoint.declined(),
+                        endpoint.percentileMillis(50),
+                        endpoint.percentileMillis(99),
+                        endpoint.percentileMillis(99.9),
+                        endpoint.maxMillis());
+            }
+        }
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+}
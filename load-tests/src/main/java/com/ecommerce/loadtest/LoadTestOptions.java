@@ -0,0 +1,139 @@
+package com.ecommerce.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Command line options, given as {@code --name=value}.
+ */
+final class LoadTestOptions {
+
+    /**
+     * Where the services under test come from.
+     */
+    enum Environment {
+        // Services are already running at the configured URLs
+        RUNNING,
+        // Embedded Postgres, service jars and the inventory stub are started here
+        EMBEDDED,
+        // Like EMBEDDED, but against the docker compose Postgres containers
+        DOCKER;
+
+        static Environment parse(String value) {
+            return valueOf(value.trim().toUpperCase());
+        }
+    }
+
+    /**
+     * What each worker runs in a loop.
+     */
+    enum Scenario {
+        // The full purchase workflow as a new customer
+        WORKFLOW,
+        // POST /api/payments/process only, e.g. to compare execution modes
+        PROCESS,
+        // Status, validate and history lookups of seeded payments, e.g. to
+        // compare the servlet and reactive payment-service builds
+        STATUS;
+
+        static Scenario parse(String value) {
+            return valueOf(value.trim().toUpperCase());
+        }
+    }
+
+    final URI usersUrl;
+    final URI paymentsUrl;
+    // Where the status scenario sends its lookups; payments-url unless set
+    final URI statusUrl;
+    // Optional; adds the gateway's /api/purchase step when set
+    final URI gatewayUrl;
+    final int concurrency;
+    // Passes per second across all workers; 0 runs them back to back
+    final double rate;
+    final Duration duration;
+    final Duration warmup;
+    final Path outputDir;
+    final Scenario scenario;
+    final Environment environment;
+    final Path userServiceJar;
+    final Path paymentServiceJar;
+    // Optional; a second payment-service build started on status-url, e.g. the reactive one
+    final Path statusServiceJar;
+    // Payments created before the status scenario starts
+    final int seedPayments;
+    // JDK the services are launched with; defaults to this JVM's
+    final Path serviceJavaHome;
+    final String serviceJavaOpts;
+    // Extra environment for both services, e.g. SPRING_PROFILES_ACTIVE=virtual-threads
+    final Map<String, String> serviceEnv;
+    final int inventoryPort;
+
+    private LoadTestOptions(Map<String, String> values) {
+        this.usersUrl = URI.create(get(values, "users-url", "http://localhost:8081"));
+        this.paymentsUrl = URI.create(get(values, "payments-url", "http://localhost:8083"));
+        this.statusUrl = URI.create(get(values, "status-url", paymentsUrl.toString()));
+        String gateway = get(values, "gateway-url", "");
+        this.gatewayUrl = gateway.isBlank() ? null : URI.create(gateway);
+        this.concurrency = Integer.parseInt(get(values, "concurrency", "32"));
+        this.rate = Double.parseDouble(get(values, "rate", "0"));
+        this.duration = Duration.ofSeconds(Long.parseLong(get(values, "duration", "60")));
+        this.warmup = Duration.ofSeconds(Long.parseLong(get(values, "warmup", "15")));
+        this.outputDir = Path.of(get(values, "output",
+                "results/" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"))));
+        this.scenario = Scenario.parse(get(values, "scenario", "workflow"));
+        this.environment = Environment.parse(get(values, "environment", "running"));
+        this.userServiceJar = Path.of(get(values, "user-service-jar", "user-service/target/user-service-1.0.0.jar"));
+        this.paymentServiceJar = Path.of(get(values, "payment-service-jar",
+                "payment-service/target/payment-service-1.0.0.jar"));
+        String statusJar = get(values, "status-service-jar", "");
+        this.statusServiceJar = statusJar.isBlank() ? null : Path.of(statusJar);
+        this.seedPayments = Integer.parseInt(get(values, "seed-payments", "200"));
+        this.serviceJavaHome = Path.of(get(values, "service-java-home", System.getProperty("java.home")));
+        this.serviceJavaOpts = get(values, "service-java-opts", "-Xmx1g");
+        this.serviceEnv = parseEnv(get(values, "service-env", ""));
+        this.inventoryPort = Integer.parseInt(get(values, "inventory-port", "9092"));
+
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return new LoadTestOptions(values);
+    }
+
+    // KEY=VALUE pairs separated by commas
+    private static Map<String, String> parseEnv(String value) {
+        Map<String, String> env = new LinkedHashMap<>();
+        for (String pair : value.split(",")) {
+            if (pair.isBlank()) {
+                continue;
+            }
+            int separator = pair.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Expected KEY=VALUE in --service-env, got " + pair);
+            }
+            env.put(pair.substring(0, separator).trim(), pair.substring(separator + 1).trim());
+        }
+        return env;
+    }
+
+    private static String get(Map<String, String> values, String name, String defaultValue) {
+        String value = values.remove(name);
+        return value != null ? value : defaultValue;
+    }
+}
@@ -0,0 +1,190 @@
+package com.ecommerce.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts what the load test needs when it isn't pointed at running services:
+ * Postgres (embedded, or the docker compose containers), the inventory stub
+ * and both service jars as child processes, plus the optional status service
+ * jar on the payments database. Service output goes to
+ * {@code <output>/<service>.log}.
+ */
+final class LocalEnvironment implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+    private final List<Process> services = new ArrayList<>();
+    private EmbeddedPostgres postgres;
+    private InventoryStubServer inventory;
+
+    private LocalEnvironment() {
+    }
+
+    static LocalEnvironment start(LoadTestOptions options) throws Exception {
+        LocalEnvironment environment = new LocalEnvironment();
+        try {
+            environment.startAll(options);
+            return environment;
+        } catch (Exception e) {
+            environment.close();
+            throw e;
+        }
+    }
+
+    private void startAll(LoadTestOptions options) throws Exception {
+        Database users;
+        Database payments;
+        if (options.environment == LoadTestOptions.Environment.EMBEDDED) {
+            System.out.println("Starting embedded Postgres...");
+            postgres = EmbeddedPostgres.builder().start();
+            try (Connection connection = postgres.getPostgresDatabase().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("CREATE DATABASE users_db");
+                statement.execute("CREATE DATABASE payments_db");
+            }
+            users = new Database(postgres.getJdbcUrl("postgres", "users_db"),
+                    r2dbcUrl(postgres.getPort(), "users_db"), "postgres", "postgres");
+            payments = new Database(postgres.getJdbcUrl("postgres", "payments_db"),
+                    r2dbcUrl(postgres.getPort(), "payments_db"), "postgres", "postgres");
+        } else {
+            // Ports published by docker-compose.yml
+            users = new Database("jdbc:postgresql://localhost:5434/users_db", r2dbcUrl(5434, "users_db"),
+                    "user_service", "user_password");
+            payments = new Database("jdbc:postgresql://localhost:5433/payments_db", r2dbcUrl(5433, "payments_db"),
+                    "payment_service", "payment_password");
+        }
+
+        System.out.println("Starting inventory stub on port " + options.inventoryPort + "...");
+        inventory = InventoryStubServer.start(options.inventoryPort);
+
+        Process userService = launch("user-service", options.userServiceJar, options, users, options.usersUrl);
+        Process paymentService = launch("payment-service", options.paymentServiceJar, options, payments,
+                options.paymentsUrl);
+        awaitHealthy("user-service", userService, options.usersUrl.resolve("/actuator/health"));
+        awaitHealthy("payment-service", paymentService, options.paymentsUrl.resolve("/api/payments/health"));
+
+        // After payment-service, which creates the schema it reads
+        if (options.statusServiceJar != null) {
+            Process statusService = launch("status-service", options.statusServiceJar, options, payments,
+                    options.statusUrl);
+            awaitHealthy("status-service", statusService, options.statusUrl.resolve("/api/payments/health"));
+        }
+    }
+
+    @Override
+    public void close() {
+        for (Process service : services) {
+            service.destroy();
+        }
+        for (Process service : services) {
+            try {
+                if (!service.waitFor(30, TimeUnit.SECONDS)) {
+                    service.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                service.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (inventory != null) {
+            try {
+                inventory.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (postgres != null) {
+            try {
+                postgres.close();
+            } catch (IOException e) {
+                System.err.println("Failed to stop embedded Postgres: " + e.getMessage());
+            }
+        }
+    }
+
+    // Private helper methods
+
+    private record Database(String url, String r2dbcUrl, String username, String password) {
+    }
+
+    private static String r2dbcUrl(int port, String database) {
+        return "r2dbc:postgresql://localhost:" + port + "/" + database;
+    }
+
+    private Process launch(String name, Path jar, LoadTestOptions options, Database database, URI url)
+            throws IOException {
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalStateException(name + " jar not found at " + jar
+                    + " (build it with `mvn package -DskipTests`)");
+        }
+        System.out.println("Starting " + name + " on port " + url.getPort() + "...");
+
+        List<String> command = new ArrayList<>();
+        command.add(options.serviceJavaHome.resolve("bin").resolve("java").toString());
+        if (!options.serviceJavaOpts.isBlank()) {
+            command.addAll(Arrays.asList(options.serviceJavaOpts.trim().split("\\s+")));
+        }
+        command.add("-jar");
+        command.add(jar.toString());
+
+        Map<String, String> env = new HashMap<>();
+        env.put("SERVER_PORT", String.valueOf(url.getPort()));
+        env.put("SPRING_DATASOURCE_URL", database.url());
+        env.put("SPRING_DATASOURCE_USERNAME", database.username());
+        env.put("SPRING_DATASOURCE_PASSWORD", database.password());
+        env.put("SPRING_R2DBC_URL", database.r2dbcUrl());
+        // Per-request SQL and security logging would dominate the profile
+        env.put("SPRING_JPA_SHOW_SQL", "false");
+        env.put("LOGGING_LEVEL_ORG_HIBERNATE_SQL", "WARN");
+        env.put("LOGGING_LEVEL_ORG_SPRINGFRAMEWORK_SECURITY", "WARN");
+        env.put("LOGGING_LEVEL_COM_ECOMMERCE", "INFO");
+        env.putAll(options.serviceEnv);
+
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(options.outputDir.resolve(name + ".log").toFile());
+        builder.environment().putAll(env);
+        Process process = builder.start();
+        services.add(process);
+        return process;
+    }
+
+    private static void awaitHealthy(String name, Process process, URI health) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(health).timeout(Duration.ofSeconds(2)).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(name + " exited with code " + process.exitValue()
+                        + "; see " + name + ".log");
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    System.out.println(name + " is up");
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(1000);
+        }
+        throw new IllegalStateException(name + " did not become healthy within " + STARTUP_TIMEOUT);
+    }
+}
@@ -0,0 +1,294 @@
+package com.ecommerce.loadtest;
+
+import com.ecommerce.loadtest.EndpointStats.Outcome;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One pass of the purchase workflow, as a new customer:
+ * register → login → profile → [purchase] → process payment → history → refund.
+ *
+ * The purchase step goes through the API gateway (and so the inventory gRPC
+ * service) and only runs when a gateway URL is configured. A declined
+ * payment ends the pass early without counting as an error. With the
+ * {@code process} scenario a pass is a single payment for a fixed user; with
+ * {@code status} it is a status, validate and history lookup of payments
+ * created up front by {@link #seed()}.
+ */
+final class PurchaseWorkflow {
+
+    static final String WORKFLOW = "workflow";
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final String PASSWORD = "LoadTest123!";
+    private static final String CARD_NUMBER = "4111111111111111";
+    private static final String PROCESS_USER = "load-test-user";
+    private static final String STATUS_USER = "load-test-status-user";
+
+    private final HttpClient client;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final LoadTestOptions options;
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    private final List<String> seededPaymentIds = new ArrayList<>();
+
+    PurchaseWorkflow(HttpClient client, LoadTestOptions options) {
+        this.client = client;
+        this.options = options;
+        if (options.scenario == LoadTestOptions.Scenario.PROCESS) {
+            stats.put("process", new EndpointStats("process"));
+            return;
+        }
+        if (options.scenario == LoadTestOptions.Scenario.STATUS) {
+            for (String name : new String[] {"status", "validate", "history"}) {
+                stats.put(name, new EndpointStats(name));
+            }
+            return;
+        }
+        for (String name : new String[] {"register", "login", "profile", "purchase", "process", "history", "refund"}) {
+            if (!name.equals("purchase") || options.gatewayUrl != null) {
+                stats.put(name, new EndpointStats(name));
+            }
+        }
+        stats.put(WORKFLOW, new EndpointStats(WORKFLOW));
+    }
+
+    Map<String, EndpointStats> stats() {
+        return stats;
+    }
+
+    /**
+     * Stats for one whole pass, as shown in the progress line.
+     */
+    EndpointStats passStats() {
+        return stats.containsKey(WORKFLOW) ? stats.get(WORKFLOW) : stats.values().iterator().next();
+    }
+
+    /**
+     * Creates the payments the {@code status} scenario looks up, through
+     * payments-url and outside the recorded stats.
+     */
+    void seed() throws IOException, InterruptedException {
+        if (options.scenario != LoadTestOptions.Scenario.STATUS) {
+            return;
+        }
+        System.out.printf("Seeding %d payments...%n", options.seedPayments);
+        while (seededPaymentIds.size() < options.seedPayments) {
+            HttpResponse<byte[]> response = client.send(processRequest(STATUS_USER),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            JsonNode body = parse(response.body());
+            if (response.statusCode() == 200) {
+                seededPaymentIds.add(body.path("paymentId").asText());
+            } else if (outcomeOf(response.statusCode(), body) != Outcome.DECLINED) {
+                throw new IllegalStateException("Seeding payments failed with HTTP " + response.statusCode()
+                        + ": " + body.path("message").asText());
+            }
+        }
+    }
+
+    /**
+     * Runs the scenario once; a whole workflow is also recorded under {@value #WORKFLOW}.
+     * The first request and the whole pass are timed from {@code scheduledNanos},
+     * when the pass was due, so a pass that starts late because the service
+     * fell behind still counts the wait.
+     */
+    void runOnce(long scheduledNanos) {
+        if (options.scenario == LoadTestOptions.Scenario.PROCESS) {
+            process(PROCESS_USER, scheduledNanos);
+            return;
+        }
+        if (options.scenario == LoadTestOptions.Scenario.STATUS) {
+            lookUp(scheduledNanos);
+            return;
+        }
+        Outcome outcome = run(scheduledNanos);
+        stats.get(WORKFLOW).record(scheduledNanos, outcome);
+    }
+
+    private Outcome run(long scheduledNanos) {
+        String email = "load-" + UUID.randomUUID() + "@loadtest.local";
+
+        ObjectNode registration = mapper.createObjectNode()
+                .put("email", email)
+                .put("password", PASSWORD)
+                .put("firstName", "Load")
+                .put("lastName", "Test");
+        Result registered = send("register", post(options.usersUrl, "/api/users/register", registration),
+                scheduledNanos);
+        if (registered.outcome != Outcome.OK) {
+            return registered.outcome;
+        }
+        String userId = registered.body.path("user").path("id").asText();
+
+        ObjectNode credentials = mapper.createObjectNode()
+                .put("email", email)
+                .put("password", PASSWORD);
+        Result login = send("login", post(options.usersUrl, "/api/users/login", credentials));
+        if (login.outcome != Outcome.OK) {
+            return login.outcome;
+        }
+        String bearer = "Bearer " + login.body.path("token").asText();
+
+        Result profile = send("profile", get(options.usersUrl, "/api/users/profile")
+                .header("Authorization", bearer)
+                .build());
+        if (profile.outcome != Outcome.OK) {
+            return profile.outcome;
+        }
+
+        if (options.gatewayUrl != null) {
+            ObjectNode purchase = mapper.createObjectNode()
+                    .put("productId", InventoryStubServer.PRODUCT_ID)
+                    .put("quantity", 1);
+            purchase.set("paymentDetails", cardDetails().put("paymentMethod", "CreditCard"));
+            Result purchased = send("purchase", post(options.gatewayUrl, "/api/purchase", purchase, bearer));
+            if (purchased.outcome != Outcome.OK) {
+                return purchased.outcome;
+            }
+        }
+
+        Result processed = process(userId, System.nanoTime());
+        if (processed.outcome != Outcome.OK) {
+            return processed.outcome;
+        }
+        String paymentId = processed.body.path("paymentId").asText();
+
+        Result history = send("history", get(options.paymentsUrl, "/api/payments/history/" + userId).build());
+        if (history.outcome != Outcome.OK) {
+            return history.outcome;
+        }
+
+        HttpRequest refund = request(options.paymentsUrl, "/api/payments/" + paymentId + "/refund")
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        return send("refund", refund).outcome;
+    }
+
+    // Private helper methods
+
+    private Result process(String userId, long startNanos) {
+        return send("process", processRequest(userId), startNanos);
+    }
+
+    private void lookUp(long scheduledNanos) {
+        String paymentId = seededPaymentIds.get(ThreadLocalRandom.current().nextInt(seededPaymentIds.size()));
+        send("status", get(options.statusUrl, "/api/payments/" + paymentId).build(), scheduledNanos);
+        send("validate", get(options.statusUrl, "/api/payments/" + paymentId + "/validate").build());
+        send("history", get(options.statusUrl, "/api/payments/history/" + STATUS_USER).build());
+    }
+
+    private HttpRequest processRequest(String userId) {
+        ObjectNode payment = mapper.createObjectNode()
+                .put("userId", userId)
+                .put("amount", "49.99")
+                .put("currency", "USD")
+                .put("paymentMethod", "CreditCard")
+                .put("orderId", "LOAD_" + UUID.randomUUID());
+        payment.set("details", cardDetails());
+        return request(options.paymentsUrl, "/api/payments/process")
+                .header("Content-Type", "application/json")
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json(payment)))
+                .build();
+    }
+
+    private record Result(Outcome outcome, JsonNode body) {
+    }
+
+    private Result send(String endpoint, HttpRequest request) {
+        return send(endpoint, request, System.nanoTime());
+    }
+
+    private Result send(String endpoint, HttpRequest request, long start) {
+        EndpointStats endpointStats = stats.get(endpoint);
+        try {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            JsonNode body = parse(response.body());
+            Outcome outcome = outcomeOf(response.statusCode(), body);
+            endpointStats.record(start, outcome);
+            return new Result(outcome, body);
+        } catch (IOException e) {
+            endpointStats.record(start, Outcome.ERROR);
+            return new Result(Outcome.ERROR, null);
+        } catch (InterruptedException e) {
+            endpointStats.record(start, Outcome.ERROR);
+            Thread.currentThread().interrupt();
+            return new Result(Outcome.ERROR, null);
+        }
+    }
+
+    private static Outcome outcomeOf(int status, JsonNode body) {
+        if (status >= 200 && status < 300) {
+            return Outcome.OK;
+        }
+        // payment-service answers a declined payment with 400; the gateway
+        // passes that on as "Payment service unavailable"
+        String message = body.path("message").asText();
+        if (status == 400
+                && (message.equals("Payment processing failed") || message.equals("Payment service unavailable"))) {
+            return Outcome.DECLINED;
+        }
+        return Outcome.ERROR;
+    }
+
+    private JsonNode parse(byte[] body) {
+        try {
+            return body.length == 0 ? mapper.createObjectNode() : mapper.readTree(body);
+        } catch (IOException e) {
+            return mapper.createObjectNode();
+        }
+    }
+
+    private byte[] json(JsonNode node) {
+        try {
+            return mapper.writeValueAsBytes(node);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ObjectNode cardDetails() {
+        return mapper.createObjectNode()
+                .put("cardNumber", CARD_NUMBER)
+                .put("cardHolder", "Load Test")
+                .put("expiryMonth", "12")
+                .put("expiryYear", "2030")
+                .put("cvv", "123");
+    }
+
+    private HttpRequest post(URI base, String path, JsonNode body) {
+        return request(base, path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json(body)))
+                .build();
+    }
+
+    private HttpRequest post(URI base, String path, JsonNode body, String bearer) {
+        return request(base, path)
+                .header("Content-Type", "application/json")
+                .header("Authorization", bearer)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json(body)))
+                .build();
+    }
+
+    private static HttpRequest.Builder get(URI base, String path) {
+        return request(base, path).GET();
+    }
+
+    private static HttpRequest.Builder request(URI base, String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).timeout(REQUEST_TIMEOUT);
+    }
+}
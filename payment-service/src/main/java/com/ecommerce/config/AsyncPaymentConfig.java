@@ -0,0 +1,71 @@
+package com.ecommerce.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.BufferingClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor and HTTP client for asynchronous payment processing. Gateway
+ * authorization and result callbacks run here, off the Tomcat and gRPC pools,
+ * on virtual threads under the {@code virtual-threads} profile.
+ */
+@Configuration
+@EnableScheduling
+public class AsyncPaymentConfig {
+
+    @Value("${payment.async.threads:16}")
+    private int threads;
+
+    @Value("${payment.async.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${payment.async.callback.timeout:5s}")
+    private Duration callbackTimeout;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService paymentExecutor() {
+        if (virtualThreads) {
+            // Same admission limit as the pool's threads plus queue
+            return VirtualThreads.newBoundedExecutor("payment-async-", threads + queueCapacity);
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(
+                threads, threads,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "payment-async-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Bean
+    public RestClient callbackRestClient(RestClient.Builder builder) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(callbackTimeout)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(callbackTimeout);
+        // Buffer bodies so callbacks carry a Content-Length instead of chunking
+        return builder.requestFactory(new BufferingClientHttpRequestFactory(requestFactory)).build();
+    }
+}
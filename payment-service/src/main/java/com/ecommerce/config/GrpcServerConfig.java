@@ -0,0 +1,205 @@
+package com.ecommerce.config;
+
+import com.ecommerce.grpc.PaymentGrpcService;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallExecutorSupplier;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the payment.proto gRPC server next to Tomcat. Calls are dispatched on
+ * an executor of their own so gRPC traffic never competes with the servlet
+ * worker pool. At most {@code threads + queue-capacity} calls are admitted at
+ * once; further calls fail fast with RESOURCE_EXHAUSTED.
+ */
+@Configuration
+public class GrpcServerConfig {
+
+    @Value("${grpc.server.port:9093}")
+    private int port;
+
+    @Value("${grpc.server.threads:16}")
+    private int threads;
+
+    @Value("${grpc.server.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${grpc.server.shutdown-grace-period:10}")
+    private long shutdownGracePeriodSeconds;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    /**
+     * Runs admitted calls. It never rejects: a task rejected mid-call would
+     * leave that call hanging, so the limit is enforced per call by
+     * {@link CallAdmission} instead, which also bounds the queue.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService grpcExecutor() {
+        if (virtualThreads) {
+            return VirtualThreads.newExecutor("grpc-payment-");
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(
+                threads, threads,
+                60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "grpc-payment-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Bean
+    public GrpcServerLifecycle grpcServerLifecycle(PaymentGrpcService paymentGrpcService) {
+        CallAdmission admission = new CallAdmission(grpcExecutor(), threads + queueCapacity);
+        // Call setup only looks up the method and takes a permit, so it runs
+        // on the transport thread; the call then switches to grpcExecutor
+        Server server = NettyServerBuilder.forPort(port)
+                .directExecutor()
+                .callExecutor(admission)
+                .intercept(admission)
+                .addService(paymentGrpcService)
+                .build();
+        return new GrpcServerLifecycle(server, shutdownGracePeriodSeconds);
+    }
+
+    /**
+     * Admits a call when a permit is free and hands it the gRPC executor;
+     * otherwise closes it with RESOURCE_EXHAUSTED before any of it is queued.
+     * The permit is returned when the admitted call completes or is cancelled.
+     */
+    static class CallAdmission implements ServerCallExecutorSupplier, ServerInterceptor {
+
+        // For rejected calls: their message and half-close must never reach the handler
+        private static final Executor DISCARD = task -> {
+        };
+
+        private final Executor executor;
+        private final Semaphore permits;
+
+        CallAdmission(Executor executor, int maxCalls) {
+            this.executor = executor;
+            this.permits = new Semaphore(maxCalls);
+        }
+
+        @Override
+        public <ReqT, RespT> Executor getExecutor(ServerCall<ReqT, RespT> call, Metadata headers) {
+            if (permits.tryAcquire()) {
+                return executor;
+            }
+            call.close(Status.RESOURCE_EXHAUSTED.withDescription("Payment service is at capacity"), new Metadata());
+            return DISCARD;
+        }
+
+        @Override
+        public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call,
+                Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+            AtomicBoolean released = new AtomicBoolean();
+            Runnable release = () -> {
+                if (released.compareAndSet(false, true)) {
+                    permits.release();
+                }
+            };
+            ServerCall.Listener<ReqT> listener;
+            try {
+                listener = next.startCall(call, headers);
+            } catch (RuntimeException e) {
+                release.run();
+                throw e;
+            }
+            return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+                @Override
+                public void onComplete() {
+                    try {
+                        super.onComplete();
+                    } finally {
+                        release.run();
+                    }
+                }
+
+                @Override
+                public void onCancel() {
+                    try {
+                        super.onCancel();
+                    } finally {
+                        release.run();
+                    }
+                }
+            };
+        }
+    }
+
+    /**
+     * Starts the gRPC server once the context is refreshed and drains it on
+     * shutdown before the executor bean is destroyed.
+     */
+    public static class GrpcServerLifecycle implements SmartLifecycle {
+
+        private static final Logger logger = LoggerFactory.getLogger(GrpcServerLifecycle.class);
+
+        private final Server server;
+        private final long shutdownGracePeriodSeconds;
+        private volatile boolean running;
+
+        public GrpcServerLifecycle(Server server, long shutdownGracePeriodSeconds) {
+            this.server = server;
+            this.shutdownGracePeriodSeconds = shutdownGracePeriodSeconds;
+        }
+
+        @Override
+        public void start() {
+            try {
+                server.start();
+                running = true;
+                logger.info("gRPC server started on port {}", server.getPort());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to start gRPC server", e);
+            }
+        }
+
+        @Override
+        public void stop() {
+            server.shutdown();
+            try {
+                if (!server.awaitTermination(shutdownGracePeriodSeconds, TimeUnit.SECONDS)) {
+                    server.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                server.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+            running = false;
+            logger.info("gRPC server stopped");
+        }
+
+        @Override
+        public boolean isRunning() {
+            return running;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.ecommerce.config;
+
+import com.ecommerce.model.Payment;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Moves {@code payments_seq} past ids that were assigned while payments used
+ * IDENTITY columns, so pooled allocation never hands out an existing id. The
+ * sequence is only touched while {@code MAX(id)} has caught up with it, which
+ * never happens once every instance allocates from it, and instances starting
+ * together serialize on a transaction-scoped advisory lock.
+ */
+@Component
+public class PaymentSequenceInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentSequenceInitializer.class);
+
+    // Arbitrary key for pg_advisory_xact_lock, shared by every instance
+    private static final long ALIGN_LOCK_KEY = 0x7061796d656e7473L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+
+    // Depends on the EntityManagerFactory so ddl-auto has created the sequence
+    public PaymentSequenceInitializer(JdbcTemplate jdbcTemplate, DataSource dataSource,
+            PlatformTransactionManager transactionManager, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void alignSequence() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                return;
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", (RowCallbackHandler) row -> { }, ALIGN_LOCK_KEY);
+            // No row, and no setval, unless existing ids have reached the sequence
+            List<Long> moved = jdbcTemplate.queryForList(
+                    "SELECT setval('payments_seq', ids.max_id + ?) "
+                            + "FROM (SELECT COALESCE(MAX(id), 0) AS max_id FROM payments) ids, payments_seq seq "
+                            + "WHERE ids.max_id >= seq.last_value",
+                    Long.class, Payment.ID_ALLOCATION_SIZE);
+            if (!moved.isEmpty()) {
+                logger.info("payments_seq moved past existing ids to {}", moved.get(0));
+            }
+        });
+    }
+}
@@ -0,0 +1,52 @@
+package com.ecommerce.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read-your-writes stickiness for replica routing. Services record a key
+ * (user, payment, ...) when they write and open a sticky scope around reads
+ * of the same key; for the configured window those reads go to the primary
+ * instead of a replica that may not have replayed the write yet.
+ *
+ * <p>Tracked per instance. Across instances staleness is bounded by the
+ * replica lag guard. Does nothing when no replicas are configured.</p>
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    private final boolean enabled;
+    private final Cache<String, Boolean> recentWrites;
+
+    public ReadYourWritesTracker(@Value("${datasource.replicas.urls:}") List<String> replicaUrls,
+            @Value("${datasource.replicas.read-your-writes-window:5s}") Duration window,
+            @Value("${datasource.replicas.read-your-writes-max-keys:100000}") long maxKeys) {
+        this.enabled = replicaUrls.stream().anyMatch(url -> !url.isBlank());
+        this.recentWrites = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    public void recordWrite(String key) {
+        if (enabled) {
+            recentWrites.put(key, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Open a scope that keeps reads on the primary if the key was written
+     * within the window; a no-op scope otherwise.
+     */
+    public ReplicaRoutingContext.Scope stickyScope(String key) {
+        if (enabled && recentWrites.getIfPresent(key) != null) {
+            return ReplicaRoutingContext.forcePrimary();
+        }
+        return ReplicaRoutingContext.noOp();
+    }
+}
@@ -0,0 +1,42 @@
+package com.ecommerce.config;
+
+/**
+ * Per-thread override that sends read-only transactions to the primary, used
+ * for reads that must see the caller's own recent writes. Takes effect for
+ * connections opened while the scope is open.
+ */
+public final class ReplicaRoutingContext {
+
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = new ThreadLocal<>();
+
+    private static final Scope NO_OP = () -> {
+    };
+
+    private ReplicaRoutingContext() {
+    }
+
+    public static boolean isPrimaryForced() {
+        return Boolean.TRUE.equals(PRIMARY_FORCED.get());
+    }
+
+    /**
+     * Route reads to the primary until the returned scope is closed.
+     */
+    public static Scope forcePrimary() {
+        if (isPrimaryForced()) {
+            return NO_OP;
+        }
+        PRIMARY_FORCED.set(Boolean.TRUE);
+        return PRIMARY_FORCED::remove;
+    }
+
+    static Scope noOp() {
+        return NO_OP;
+    }
+
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
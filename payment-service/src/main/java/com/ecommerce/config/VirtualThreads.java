@@ -0,0 +1,112 @@
+package com.ecommerce.config;
+
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executors for the opt-in {@code virtual-threads} profile
+ * ({@code spring.threads.virtual.enabled=true}, Java 21+). The service is
+ * still compiled for Java 17, so the thread-per-task executor is looked up
+ * at runtime; enabling the profile on an older JVM fails at startup.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * A virtual thread per task, with at most {@code maxConcurrency} tasks
+     * admitted at once. Beyond that, tasks are rejected with
+     * {@link RejectedExecutionException} like the bounded platform pools.
+     */
+    static ExecutorService newBoundedExecutor(String threadNamePrefix, int maxConcurrency) {
+        ThreadFactory factory = new VirtualThreadTaskExecutor(threadNamePrefix).getVirtualThreadFactory();
+        return new BoundedExecutorService(newThreadPerTaskExecutor(factory), maxConcurrency);
+    }
+
+    /**
+     * A virtual thread per task, without a limit; for callers that admit
+     * work themselves.
+     */
+    static ExecutorService newExecutor(String threadNamePrefix) {
+        return newThreadPerTaskExecutor(new VirtualThreadTaskExecutor(threadNamePrefix).getVirtualThreadFactory());
+    }
+
+    // Private helper methods
+
+    private static ExecutorService newThreadPerTaskExecutor(ThreadFactory factory) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().findStatic(Executors.class,
+                    "newThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class, ThreadFactory.class));
+            return (ExecutorService) handle.invoke(factory);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Virtual threads require Java 21 or later", e);
+        }
+    }
+
+    private static final class BoundedExecutorService extends AbstractExecutorService {
+
+        private final ExecutorService delegate;
+        private final Semaphore permits;
+
+        private BoundedExecutorService(ExecutorService delegate, int maxConcurrency) {
+            this.delegate = delegate;
+            this.permits = new Semaphore(maxConcurrency);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            if (!permits.tryAcquire()) {
+                throw new RejectedExecutionException("Executor is at capacity");
+            }
+            try {
+                delegate.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}
@@ -1,16 +1,33 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.dto.BatchPaymentRequest;
+import com.ecommerce.dto.BatchPaymentResponse;
+import com.ecommerce.dto.PaymentHistoryPage;
 import com.ecommerce.dto.PaymentRequest;
 import com.ecommerce.dto.PaymentResponse;
-import com.ecommerce.model.Payment;
+import com.ecommerce.dto.RefundRequest;
+import com.ecommerce.model.Payment.PaymentStatus;
+import com.ecommerce.model.PaymentRefund;
+import com.ecommerce.service.AsyncPaymentProcessor;
+import com.ecommerce.service.IdempotentPaymentProcessor;
+import com.ecommerce.service.PaymentCapacityExceededException;
+import com.ecommerce.service.PaymentCompletionNotifier;
 import com.ecommerce.service.PaymentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
 
@@ -23,13 +40,27 @@ public class PaymentController {
     @Autowired
     private PaymentService paymentService;
 
+    @Autowired
+    private IdempotentPaymentProcessor idempotentPaymentProcessor;
+
+    @Autowired
+    private AsyncPaymentProcessor asyncPaymentProcessor;
+
+    @Autowired
+    private PaymentCompletionNotifier paymentCompletionNotifier;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
-     * Process a new payment
+     * Process a new payment. Retries with the same Idempotency-Key header (or
+     * the same order ID) return the original result instead of charging again.
      */
     @PostMapping("/process")
-    public ResponseEntity<PaymentResponse> processPayment(@Valid @RequestBody PaymentRequest request) {
+    public ResponseEntity<PaymentResponse> processPayment(@Valid @RequestBody PaymentRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         try {
-            PaymentResponse response = paymentService.processPayment(request);
+            PaymentResponse response = idempotentPaymentProcessor.process(request, idempotencyKey);
 
             if (response.isSuccess()) {
                 return ResponseEntity.ok(response);
@@ -42,6 +73,73 @@ public class PaymentController {
         }
     }
 
+    /**
+     * Accept a payment for background processing and answer 202 with its ID
+     * right away. The result is available by polling the payment, through
+     * {@code GET /{paymentId}/events}, or POSTed to the request's callbackUrl.
+     */
+    @PostMapping("/process/async")
+    public ResponseEntity<PaymentResponse> processPaymentAsync(@Valid @RequestBody PaymentRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        try {
+            PaymentResponse response = asyncPaymentProcessor.submit(request, idempotencyKey);
+
+            if (!response.isSuccess() && response.getPaymentId() == null) {
+                return ResponseEntity.badRequest().body(response);
+            }
+            if (PaymentStatus.PENDING.name().equals(response.getStatus())) {
+                return ResponseEntity.accepted()
+                        .location(URI.create("/api/payments/" + response.getPaymentId()))
+                        .body(response);
+            }
+            return ResponseEntity.ok(response);
+        } catch (PaymentCapacityExceededException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(PaymentResponse.failure(e.getMessage()));
+        } catch (Exception e) {
+            PaymentResponse errorResponse = PaymentResponse.failure("Internal server error: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    /**
+     * Server-Sent Events stream that emits one "payment" event once the
+     * payment leaves PENDING, then closes
+     */
+    @GetMapping(value = "/{paymentId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter paymentEvents(@PathVariable String paymentId) {
+        SseEmitter emitter = paymentCompletionNotifier.subscribe(paymentId);
+
+        // Subscribe first, then look: a result that landed in between is sent here
+        PaymentResponse current = paymentService.getPaymentStatus(paymentId);
+        if (current.getPaymentId() == null || !PaymentStatus.PENDING.name().equals(current.getStatus())) {
+            paymentCompletionNotifier.send(emitter, current);
+        }
+        return emitter;
+    }
+
+    /**
+     * Process many payments in one request, stored in one transaction and
+     * completed in another. Each item is idempotent per order ID and gets
+     * its own result, in request order.
+     */
+    @PostMapping("/process/batch")
+    public ResponseEntity<?> processPayments(@Valid @RequestBody BatchPaymentRequest request) {
+        try {
+            List<PaymentResponse> results = idempotentPaymentProcessor.processBatch(request.getPayments());
+            return ResponseEntity.ok(new BatchPaymentResponse(results));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "success", false,
+                    "message", "Internal server error: " + e.getMessage()));
+        }
+    }
+
     /**
      * Validate a payment
      */
@@ -81,17 +179,25 @@ public class PaymentController {
     }
 
     /**
-     * Get payment history for a user
+     * Get payment history for a user, one keyset page at a time
      */
     @GetMapping("/history/{userId}")
-    public ResponseEntity<?> getPaymentHistory(@PathVariable String userId) {
+    public ResponseEntity<?> getPaymentHistory(@PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<Payment> payments = paymentService.getPaymentHistory(userId);
+            PaymentHistoryPage page = paymentService.getPaymentHistory(userId, cursor, size);
 
-            return ResponseEntity.ok().body(Map.of(
+            java.util.Map<String, Object> body = Map.of(
                     "success", true,
                     "message", "Payment history retrieved successfully",
-                    "data", payments));
+                    "data", page.getPayments());
+            body.put("nextCursor", page.getNextCursor());
+            return ResponseEntity.ok().body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
                     "success", false,
@@ -100,12 +206,37 @@ public class PaymentController {
     }
 
     /**
-     * Refund a payment
+     * Stream a user's full payment history as NDJSON, one payment per line
+     */
+    @GetMapping(value = "/history/{userId}/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportPaymentHistory(@PathVariable String userId) {
+        StreamingResponseBody body = outputStream -> {
+            try {
+                paymentService.exportPaymentHistory(userId, payment -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(payment));
+                        outputStream.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
+    /**
+     * Refund a payment in full, or partially when the body has an amount
      */
     @PostMapping("/{paymentId}/refund")
-    public ResponseEntity<PaymentResponse> refundPayment(@PathVariable String paymentId) {
+    public ResponseEntity<PaymentResponse> refundPayment(@PathVariable String paymentId,
+            @Valid @RequestBody(required = false) RefundRequest request) {
         try {
-            PaymentResponse response = paymentService.refundPayment(paymentId);
+            PaymentResponse response = request == null
+                    ? paymentService.refundPayment(paymentId, null, null)
+                    : paymentService.refundPayment(paymentId, request.getAmount(), request.getReason());
 
             if (response.isSuccess()) {
                 return ResponseEntity.ok(response);
@@ -118,6 +249,27 @@ public class PaymentController {
         }
     }
 
+    /**
+     * List the refunds of a payment
+     */
+    @GetMapping("/{paymentId}/refunds")
+    public ResponseEntity<?> getRefunds(@PathVariable String paymentId) {
+        try {
+            List<PaymentRefund> refunds = paymentService.getRefunds(paymentId);
+            return ResponseEntity.ok().body(Map.of(
+                    "success", true,
+                    "data", refunds));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "Invalid payment ID format"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "success", false,
+                    "message", "Error retrieving refunds: " + e.getMessage()));
+        }
+    }
+
     /**
      * Health check endpoint
      */
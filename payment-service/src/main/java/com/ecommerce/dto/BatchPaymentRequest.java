@@ -0,0 +1,28 @@
+package com.ecommerce.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+public class BatchPaymentRequest {
+
+    @NotEmpty(message = "At least one payment is required")
+    private List<@Valid PaymentRequest> payments;
+
+    // Constructors
+    public BatchPaymentRequest() {
+    }
+
+    public BatchPaymentRequest(List<PaymentRequest> payments) {
+        this.payments = payments;
+    }
+
+    // Getters and Setters
+    public List<PaymentRequest> getPayments() {
+        return payments;
+    }
+
+    public void setPayments(List<PaymentRequest> payments) {
+        this.payments = payments;
+    }
+}
@@ -0,0 +1,48 @@
+package com.ecommerce.dto;
+
+import java.util.List;
+
+public class BatchPaymentResponse {
+
+    private int succeeded;
+    private int failed;
+    private List<PaymentResponse> results;
+
+    // Constructors
+    public BatchPaymentResponse() {
+    }
+
+    public BatchPaymentResponse(List<PaymentResponse> results) {
+        this.results = results;
+        this.succeeded = (int) results.stream().filter(PaymentResponse::isSuccess).count();
+        this.failed = results.size() - succeeded;
+    }
+
+    // Getters and Setters
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    /**
+     * One result per requested payment, in request order.
+     */
+    public List<PaymentResponse> getResults() {
+        return results;
+    }
+
+    public void setResults(List<PaymentResponse> results) {
+        this.results = results;
+    }
+}
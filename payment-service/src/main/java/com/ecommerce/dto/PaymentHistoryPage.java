@@ -0,0 +1,38 @@
+package com.ecommerce.dto;
+
+import java.util.List;
+
+public class PaymentHistoryPage {
+
+    private List<PaymentSummary> payments;
+    private String nextCursor;
+
+    // Constructors
+    public PaymentHistoryPage() {
+    }
+
+    public PaymentHistoryPage(List<PaymentSummary> payments, String nextCursor) {
+        this.payments = payments;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<PaymentSummary> getPayments() {
+        return payments;
+    }
+
+    public void setPayments(List<PaymentSummary> payments) {
+        this.payments = payments;
+    }
+
+    /**
+     * Opaque cursor for the next page, or {@code null} on the last page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -22,6 +22,9 @@ public class PaymentRequest {
     private String orderId;
     private PaymentDetails details;
 
+    // Only used by asynchronous processing: where to POST the final result
+    private String callbackUrl;
+
     // Constructors
     public PaymentRequest() {
     }
@@ -85,6 +88,14 @@ public class PaymentRequest {
         this.details = details;
     }
 
+    public String getCallbackUrl() {
+        return callbackUrl;
+    }
+
+    public void setCallbackUrl(String callbackUrl) {
+        this.callbackUrl = callbackUrl;
+    }
+
     // Nested class for payment details
     public static class PaymentDetails {
         private String cardNumber;
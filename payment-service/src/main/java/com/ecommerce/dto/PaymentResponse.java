@@ -13,6 +13,7 @@ public class PaymentResponse {
     private String status;
     private String userId;
     private BigDecimal amount;
+    private BigDecimal refundedAmount;
     private String currency;
     private String paymentMethod;
     private String orderId;
@@ -36,6 +37,7 @@ public class PaymentResponse {
             this.status = payment.getStatus().name();
             this.userId = payment.getUserId();
             this.amount = payment.getAmount();
+            this.refundedAmount = payment.getRefundedAmount();
             this.currency = payment.getCurrency();
             this.paymentMethod = payment.getPaymentMethod();
             this.orderId = payment.getOrderId();
@@ -109,6 +111,14 @@ public class PaymentResponse {
         this.amount = amount;
     }
 
+    public BigDecimal getRefundedAmount() {
+        return refundedAmount;
+    }
+
+    public void setRefundedAmount(BigDecimal refundedAmount) {
+        this.refundedAmount = refundedAmount;
+    }
+
     public String getCurrency() {
         return currency;
     }
@@ -0,0 +1,102 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.model.Payment.PaymentStatus;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight history row. Selected directly by the repository so the
+ * payment_details TEXT column and managed entities are never loaded.
+ */
+public class PaymentSummary {
+
+    private Long id;
+    private String transactionId;
+    private String status;
+    private BigDecimal amount;
+    private String currency;
+    private String paymentMethod;
+    private String orderId;
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public PaymentSummary() {
+    }
+
+    public PaymentSummary(Long id, String transactionId, PaymentStatus status, BigDecimal amount,
+            String currency, String paymentMethod, String orderId, LocalDateTime createdAt) {
+        this.id = id;
+        this.transactionId = transactionId;
+        this.status = status != null ? status.name() : null;
+        this.amount = amount;
+        this.currency = currency;
+        this.paymentMethod = paymentMethod;
+        this.orderId = orderId;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public void setTransactionId(String transactionId) {
+        this.transactionId = transactionId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public void setPaymentMethod(String paymentMethod) {
+        this.paymentMethod = paymentMethod;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,43 @@
+package com.ecommerce.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Size;
+import java.math.BigDecimal;
+
+public class RefundRequest {
+
+    // Omit to refund whatever has not been refunded yet
+    @DecimalMin(value = "0.01", message = "Refund amount must be positive")
+    @Digits(integer = 8, fraction = 2, message = "Refund amount must have at most 2 decimal places")
+    private BigDecimal amount;
+
+    @Size(max = 255, message = "Reason must be at most 255 characters")
+    private String reason;
+
+    // Constructors
+    public RefundRequest() {
+    }
+
+    public RefundRequest(BigDecimal amount, String reason) {
+        this.amount = amount;
+        this.reason = reason;
+    }
+
+    // Getters and Setters
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
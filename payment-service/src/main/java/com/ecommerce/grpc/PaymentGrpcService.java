@@ -0,0 +1,226 @@
+package com.ecommerce.grpc;
+
+import com.ecommerce.dto.PaymentRequest;
+import com.ecommerce.dto.PaymentResponse;
+import com.ecommerce.proto.PaymentProto;
+import com.ecommerce.proto.PaymentServiceGrpc;
+import com.ecommerce.service.IdempotentPaymentProcessor;
+import com.ecommerce.service.PaymentService;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * gRPC facade over {@link PaymentService}. Handlers run on the executor
+ * configured in {@link com.ecommerce.config.GrpcServerConfig}, never on the
+ * Netty event loop or the Tomcat pool. Unexpected failures are logged here
+ * and reported as INTERNAL with a fixed description, so exception messages
+ * never reach the caller.
+ */
+@Component
+public class PaymentGrpcService extends PaymentServiceGrpc.PaymentServiceImplBase {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentGrpcService.class);
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private IdempotentPaymentProcessor idempotentPaymentProcessor;
+
+    @Override
+    public void processPayment(PaymentProto.PaymentRequest request,
+            StreamObserver<PaymentProto.PaymentResponse> responseObserver) {
+        try {
+            // Order ID doubles as the idempotency key for gRPC callers
+            PaymentResponse response = idempotentPaymentProcessor.process(toPaymentRequest(request), null);
+
+            responseObserver.onNext(toProtoResponse(response));
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            logger.error("gRPC ProcessPayment failed", e);
+            responseObserver.onError(Status.INTERNAL
+                    .withDescription("Payment processing error")
+                    .asRuntimeException());
+        }
+    }
+
+    /**
+     * Client-streaming batch. Requests are buffered into chunks of
+     * {@code payment.batch.max-size}; each full chunk is processed and
+     * committed as it fills, so memory stays bounded by one chunk plus the
+     * per-item results.
+     */
+    @Override
+    public StreamObserver<PaymentProto.PaymentRequest> processPayments(
+            StreamObserver<PaymentProto.BatchPaymentResponse> responseObserver) {
+        return new StreamObserver<>() {
+
+            private final List<PaymentRequest> chunk = new ArrayList<>();
+            private final PaymentProto.BatchPaymentResponse.Builder result = PaymentProto.BatchPaymentResponse.newBuilder();
+            private boolean failed;
+
+            @Override
+            public void onNext(PaymentProto.PaymentRequest request) {
+                if (failed) {
+                    return;
+                }
+                chunk.add(toPaymentRequest(request));
+                if (chunk.size() >= idempotentPaymentProcessor.getMaxBatchSize()) {
+                    processChunk();
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                // Client cancelled; chunks already committed stay committed
+                failed = true;
+            }
+
+            @Override
+            public void onCompleted() {
+                if (failed) {
+                    return;
+                }
+                processChunk();
+                if (!failed) {
+                    responseObserver.onNext(result.build());
+                    responseObserver.onCompleted();
+                }
+            }
+
+            private void processChunk() {
+                if (chunk.isEmpty()) {
+                    return;
+                }
+                try {
+                    for (PaymentResponse response : idempotentPaymentProcessor.processBatch(chunk)) {
+                        result.addResults(toProtoResponse(response));
+                        if (response.isSuccess()) {
+                            result.setSucceeded(result.getSucceeded() + 1);
+                        } else {
+                            result.setFailed(result.getFailed() + 1);
+                        }
+                    }
+                    chunk.clear();
+                } catch (Exception e) {
+                    failed = true;
+                    logger.error("gRPC ProcessPayments failed", e);
+                    responseObserver.onError(Status.INTERNAL
+                            .withDescription("Batch payment processing error")
+                            .asRuntimeException());
+                }
+            }
+        };
+    }
+
+    @Override
+    public void validatePayment(PaymentProto.ValidatePaymentRequest request,
+            StreamObserver<PaymentProto.ValidationResponse> responseObserver) {
+        try {
+            PaymentResponse response = paymentService.validatePayment(request.getPaymentId());
+
+            responseObserver.onNext(PaymentProto.ValidationResponse.newBuilder()
+                    .setValid(response.isSuccess())
+                    .setStatus(nullToEmpty(response.getStatus()))
+                    .setMessage(nullToEmpty(response.getMessage()))
+                    .build());
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            logger.error("gRPC ValidatePayment failed", e);
+            responseObserver.onError(Status.INTERNAL
+                    .withDescription("Validation error")
+                    .asRuntimeException());
+        }
+    }
+
+    @Override
+    public void getPaymentStatus(PaymentProto.PaymentStatusRequest request,
+            StreamObserver<PaymentProto.PaymentStatusResponse> responseObserver) {
+        try {
+            PaymentResponse response = paymentService.getPaymentStatus(request.getPaymentId());
+
+            PaymentProto.PaymentStatusResponse.Builder builder = PaymentProto.PaymentStatusResponse.newBuilder()
+                    .setSuccess(response.isSuccess())
+                    .setMessage(nullToEmpty(response.getMessage()));
+            if (response.isSuccess()) {
+                builder.setPayment(toProtoPayment(response));
+            }
+
+            responseObserver.onNext(builder.build());
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            logger.error("gRPC GetPaymentStatus failed", e);
+            responseObserver.onError(Status.INTERNAL
+                    .withDescription("Error retrieving payment")
+                    .asRuntimeException());
+        }
+    }
+
+    // Private helper methods
+
+    private PaymentRequest toPaymentRequest(PaymentProto.PaymentRequest request) {
+        PaymentRequest.PaymentDetails details = null;
+        if (request.hasDetails()) {
+            PaymentProto.PaymentDetails source = request.getDetails();
+            details = new PaymentRequest.PaymentDetails();
+            details.setCardNumber(emptyToNull(source.getCardNumber()));
+            details.setCardHolder(emptyToNull(source.getCardHolder()));
+            details.setExpiryMonth(emptyToNull(source.getExpiryMonth()));
+            details.setExpiryYear(emptyToNull(source.getExpiryYear()));
+            details.setCvv(emptyToNull(source.getCvv()));
+            details.setBillingAddress(emptyToNull(source.getBillingAddress()));
+        }
+
+        return new PaymentRequest(
+                emptyToNull(request.getUserId()),
+                BigDecimal.valueOf(request.getAmount()),
+                emptyToNull(request.getCurrency()),
+                emptyToNull(request.getPaymentMethod()),
+                emptyToNull(request.getOrderId()),
+                details);
+    }
+
+    private PaymentProto.PaymentResponse toProtoResponse(PaymentResponse response) {
+        return PaymentProto.PaymentResponse.newBuilder()
+                .setSuccess(response.isSuccess())
+                .setPaymentId(nullToEmpty(response.getPaymentId()))
+                .setTransactionId(nullToEmpty(response.getTransactionId()))
+                .setStatus(nullToEmpty(response.getStatus()))
+                .setMessage(nullToEmpty(response.getMessage()))
+                .build();
+    }
+
+    private PaymentProto.Payment toProtoPayment(PaymentResponse response) {
+        PaymentProto.Payment.Builder builder = PaymentProto.Payment.newBuilder()
+                .setId(nullToEmpty(response.getPaymentId()))
+                .setUserId(nullToEmpty(response.getUserId()))
+                .setCurrency(nullToEmpty(response.getCurrency()))
+                .setStatus(nullToEmpty(response.getStatus()))
+                .setPaymentMethod(nullToEmpty(response.getPaymentMethod()))
+                .setTransactionId(nullToEmpty(response.getTransactionId()))
+                .setOrderId(nullToEmpty(response.getOrderId()));
+        if (response.getAmount() != null) {
+            builder.setAmount(response.getAmount().doubleValue());
+        }
+        if (response.getCreatedAt() != null) {
+            builder.setCreatedAt(response.getCreatedAt().toString());
+        }
+        return builder.build();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
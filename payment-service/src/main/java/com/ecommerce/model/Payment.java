@@ -9,11 +9,19 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        @Index(name = "idx_payments_user_created", columnList = "user_id, created_at DESC, id DESC"),
+        @Index(name = "idx_payments_order", columnList = "order_id"),
+        @Index(name = "idx_payments_status_created", columnList = "status, created_at")
+})
 public class Payment {
 
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Pooled sequence: Hibernate reserves blocks of ids so inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_seq")
+    @SequenceGenerator(name = "payments_seq", sequenceName = "payments_seq", allocationSize = Payment.ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -30,6 +38,11 @@ public class Payment {
     @Size(min = 3, max = 3, message = "Currency must be 3 characters")
     private String currency;
 
+    // Sum of all refunds so far; the payment is REFUNDED once it reaches amount
+    @Column(name = "refunded_amount", nullable = false, precision = 10, scale = 2,
+            columnDefinition = "numeric(10,2) default 0")
+    private BigDecimal refundedAmount = BigDecimal.ZERO;
+
     @Column(name = "status", nullable = false)
     @Enumerated(EnumType.STRING)
     private PaymentStatus status;
@@ -44,12 +57,19 @@ public class Payment {
     @Column(name = "order_id")
     private String orderId;
 
+    @Column(name = "idempotency_key", unique = true)
+    private String idempotencyKey;
+
     @Column(name = "payment_details", columnDefinition = "TEXT")
     private String paymentDetails;
 
     @Column(name = "failure_reason")
     private String failureReason;
 
+    // While PENDING: until when the instance authorizing it keeps working on it
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -58,6 +78,12 @@ public class Payment {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    // Bumped by every change, including the repository's bulk UPDATEs, so the
+    // status cache can order snapshots without comparing JVM and database clocks
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     // Constructors
     public Payment() {
     }
@@ -105,6 +131,14 @@ public class Payment {
         this.currency = currency;
     }
 
+    public BigDecimal getRefundedAmount() {
+        return refundedAmount;
+    }
+
+    public void setRefundedAmount(BigDecimal refundedAmount) {
+        this.refundedAmount = refundedAmount;
+    }
+
     public PaymentStatus getStatus() {
         return status;
     }
@@ -137,6 +171,14 @@ public class Payment {
         this.orderId = orderId;
     }
 
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
     public String getPaymentDetails() {
         return paymentDetails;
     }
@@ -153,6 +195,14 @@ public class Payment {
         this.failureReason = failureReason;
     }
 
+    public LocalDateTime getClaimedUntil() {
+        return claimedUntil;
+    }
+
+    public void setClaimedUntil(LocalDateTime claimedUntil) {
+        this.claimedUntil = claimedUntil;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -169,6 +219,14 @@ public class Payment {
         this.updatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // Enum for Payment Status
     public enum PaymentStatus {
         PENDING,
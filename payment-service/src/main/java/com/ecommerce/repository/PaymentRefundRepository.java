@@ -0,0 +1,14 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.PaymentRefund;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PaymentRefundRepository extends JpaRepository<PaymentRefund, Long> {
+
+    // Refunds of a payment, oldest first
+    List<PaymentRefund> findByPaymentIdOrderByCreatedAtAsc(Long paymentId);
+}
@@ -1,12 +1,19 @@
 package com.ecommerce.repository;
 
+import com.ecommerce.dto.PaymentSummary;
 import com.ecommerce.model.Payment;
 import com.ecommerce.model.Payment.PaymentStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +23,15 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     // Find payment by transaction ID
     Optional<Payment> findByTransactionId(String transactionId);
 
+    // Find the payment created for an idempotency key. Read-write so it runs
+    // on the primary: duplicate detection must see the latest commit
+    @Transactional
+    Optional<Payment> findByIdempotencyKey(String idempotencyKey);
+
+    // Find the payments already created for a batch of idempotency keys
+    @Transactional
+    List<Payment> findByIdempotencyKeyIn(Collection<String> idempotencyKeys);
+
     // Find payments by user ID
     List<Payment> findByUserIdOrderByCreatedAtDesc(String userId);
 
@@ -32,6 +48,89 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     @Query("SELECT p FROM Payment p WHERE p.userId = :userId ORDER BY p.createdAt DESC")
     List<Payment> findRecentPaymentsByUserId(@Param("userId") String userId);
 
+    // First page of a user's history, newest first, as lightweight rows
+    @Query("SELECT new com.ecommerce.dto.PaymentSummary(p.id, p.transactionId, p.status, p.amount, p.currency, "
+            + "p.paymentMethod, p.orderId, p.createdAt) FROM Payment p WHERE p.userId = :userId "
+            + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PaymentSummary> findHistoryFirstPage(@Param("userId") String userId, Limit limit);
+
+    // Keyset page: rows strictly older than the (createdAt, id) cursor
+    @Query("SELECT new com.ecommerce.dto.PaymentSummary(p.id, p.transactionId, p.status, p.amount, p.currency, "
+            + "p.paymentMethod, p.orderId, p.createdAt) FROM Payment p WHERE p.userId = :userId "
+            + "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) "
+            + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PaymentSummary> findHistoryPageAfter(@Param("userId") String userId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    // Move a payment to a new status only if it is still in the expected one
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = :status, p.failureReason = :failureReason, "
+            + "p.updatedAt = CURRENT_TIMESTAMP, p.version = p.version + 1 WHERE p.id = :id AND p.status = :expected")
+    int updateStatusIf(@Param("id") Long id, @Param("expected") PaymentStatus expected,
+            @Param("status") PaymentStatus status, @Param("failureReason") String failureReason);
+
+    // Like updateStatusIf, also giving up the idempotency key so the order can be retried
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = :status, p.failureReason = :failureReason, p.idempotencyKey = NULL, "
+            + "p.updatedAt = CURRENT_TIMESTAMP, p.version = p.version + 1 WHERE p.id = :id AND p.status = :expected")
+    int failIf(@Param("id") Long id, @Param("expected") PaymentStatus expected,
+            @Param("status") PaymentStatus status, @Param("failureReason") String failureReason);
+
+    // updateStatusIf for a set of payments in one statement
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = :status, p.failureReason = :failureReason, "
+            + "p.updatedAt = CURRENT_TIMESTAMP, p.version = p.version + 1 WHERE p.id IN :ids AND p.status = :expected")
+    int updateStatusAllIf(@Param("ids") Collection<Long> ids, @Param("expected") PaymentStatus expected,
+            @Param("status") PaymentStatus status, @Param("failureReason") String failureReason);
+
+    // failIf for a set of payments in one statement
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = :status, p.failureReason = :failureReason, p.idempotencyKey = NULL, "
+            + "p.updatedAt = CURRENT_TIMESTAMP, p.version = p.version + 1 WHERE p.id IN :ids AND p.status = :expected")
+    int failAllIf(@Param("ids") Collection<Long> ids, @Param("expected") PaymentStatus expected,
+            @Param("status") PaymentStatus status, @Param("failureReason") String failureReason);
+
+    // Give up the idempotency key of a payment still in the expected status
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.idempotencyKey = NULL, p.version = p.version + 1 "
+            + "WHERE p.id = :id AND p.status = :expected")
+    int releaseIdempotencyKeyIf(@Param("id") Long id, @Param("expected") PaymentStatus expected);
+
+    // Refund part or all of a successful payment in one statement. The row
+    // lock serializes concurrent refunds and the WHERE clause is re-checked
+    // against the latest committed row, so refunds never exceed the amount
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.refundedAmount = p.refundedAmount + :amount, "
+            + "p.status = CASE WHEN p.refundedAmount + :amount >= p.amount THEN :refunded ELSE p.status END, "
+            + "p.updatedAt = CURRENT_TIMESTAMP, p.version = p.version + 1 "
+            + "WHERE p.id = :id AND p.status = :refundable AND p.refundedAmount + :amount <= p.amount")
+    int applyRefund(@Param("id") Long id, @Param("amount") BigDecimal amount,
+            @Param("refundable") PaymentStatus refundable, @Param("refunded") PaymentStatus refunded);
+
+    // Move every payment in the expected status whose claim has expired,
+    // giving up its idempotency key. Rows
+    // stored before claims existed count as unclaimed once created before the cutoff
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = :status, p.failureReason = :failureReason, p.idempotencyKey = NULL, "
+            + "p.updatedAt = CURRENT_TIMESTAMP, p.version = p.version + 1 "
+            + "WHERE p.status = :expected AND (p.claimedUntil < :now "
+            + "OR (p.claimedUntil IS NULL AND p.createdAt < :unclaimedCutoff))")
+    int updateStatusUnclaimed(@Param("expected") PaymentStatus expected, @Param("now") LocalDateTime now,
+            @Param("unclaimedCutoff") LocalDateTime unclaimedCutoff,
+            @Param("status") PaymentStatus status, @Param("failureReason") String failureReason);
+
+    // Extend the claims of payments still in the expected status
+    @Modifying
+    @Query("UPDATE Payment p SET p.claimedUntil = :claimedUntil, p.version = p.version + 1 "
+            + "WHERE p.id IN :ids AND p.status = :expected")
+    int extendClaims(@Param("ids") Collection<Long> ids, @Param("expected") PaymentStatus expected,
+            @Param("claimedUntil") LocalDateTime claimedUntil);
+
+    // Delete a payment only if it is still in the expected status
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Payment p WHERE p.id = :id AND p.status = :expected")
+    int deleteIf(@Param("id") Long id, @Param("expected") PaymentStatus expected);
+
     // Count payments by status
     long countByStatus(PaymentStatus status);
 
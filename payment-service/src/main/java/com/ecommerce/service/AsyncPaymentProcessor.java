@@ -0,0 +1,142 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.PaymentRequest;
+import com.ecommerce.dto.PaymentResponse;
+import com.ecommerce.model.Payment;
+import com.ecommerce.model.Payment.PaymentStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Asynchronous payment processing. The payment is stored as PENDING in a
+ * short transaction and the caller gets its ID straight away; gateway
+ * authorization then runs on the payment executor with no transaction or
+ * pooled connection held, and the result is recorded in a second short
+ * transaction and published through {@link PaymentCompletionNotifier}.
+ *
+ * <p>Idempotent per {@code Idempotency-Key} header or order ID, like the
+ * synchronous path. Card details live only in memory until authorization, so
+ * payments left PENDING by a restart are failed by a periodic sweep once
+ * their {@link PendingPaymentClaims claim} runs out.</p>
+ */
+@Service
+public class AsyncPaymentProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncPaymentProcessor.class);
+
+    private final PaymentService paymentService;
+    private final PaymentGateway paymentGateway;
+    private final PaymentCompletionNotifier notifier;
+    private final PendingPaymentClaims claims;
+    private final ExecutorService paymentExecutor;
+    private final Duration pendingTimeout;
+
+    public AsyncPaymentProcessor(PaymentService paymentService,
+            PaymentGateway paymentGateway,
+            PaymentCompletionNotifier notifier,
+            PendingPaymentClaims claims,
+            @Qualifier("paymentExecutor") ExecutorService paymentExecutor,
+            @Value("${payment.async.pending-timeout:10m}") Duration pendingTimeout) {
+        this.paymentService = paymentService;
+        this.paymentGateway = paymentGateway;
+        this.notifier = notifier;
+        this.claims = claims;
+        this.paymentExecutor = paymentExecutor;
+        this.pendingTimeout = pendingTimeout;
+    }
+
+    /**
+     * Accept a payment for background processing.
+     *
+     * @return the PENDING payment, or the stored payment when the key was seen before
+     */
+    public PaymentResponse submit(PaymentRequest request, String idempotencyKey) {
+        if (request.getCallbackUrl() != null && !notifier.isAllowedCallback(request.getCallbackUrl())) {
+            return PaymentResponse.failure("Callback URL is not allowed");
+        }
+
+        String key = IdempotentPaymentProcessor.resolveKey(request, idempotencyKey);
+        if (key != null) {
+            Optional<Payment> stored = paymentService.findByIdempotencyKey(key);
+            if (stored.isPresent()) {
+                return IdempotentPaymentProcessor.replay(stored.get(), request);
+            }
+        }
+
+        Payment payment;
+        try {
+            Optional<Payment> created = paymentService.createPendingPayment(request, key, claims.claimExpiry());
+            if (created.isEmpty()) {
+                return PaymentResponse.failure("Invalid payment request");
+            }
+            payment = created.get();
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent duplicate stored the key first; answer with its payment
+            return paymentService.findByIdempotencyKey(key)
+                    .map(existing -> IdempotentPaymentProcessor.replay(existing, request))
+                    .orElseThrow(() -> e);
+        }
+
+        claims.track(payment.getId());
+        try {
+            paymentExecutor.execute(() -> authorize(payment.getId(), request));
+        } catch (RejectedExecutionException e) {
+            // Nothing was sent to the gateway; drop the row so the retry we ask for can reuse the key
+            claims.release(payment.getId());
+            paymentService.discardPendingPayment(payment.getId());
+            throw new PaymentCapacityExceededException("Payment processing queue is full");
+        }
+        return new PaymentResponse(true, "Payment accepted for processing", payment);
+    }
+
+    /**
+     * Fail payments whose in-memory processing was lost, e.g. to a restart.
+     */
+    @Scheduled(fixedDelayString = "${payment.async.sweep-interval-ms:60000}")
+    public void failStalePendingPayments() {
+        LocalDateTime now = LocalDateTime.now();
+        int failed = paymentService.failStalePendingPayments(now, now.minus(pendingTimeout));
+        if (failed > 0) {
+            logger.warn("Failed {} payments left PENDING for more than {}", failed, pendingTimeout);
+        }
+    }
+
+    // Private helper methods
+
+    private void authorize(Long paymentId, PaymentRequest request) {
+        boolean approved;
+        try {
+            approved = paymentGateway.authorize(request);
+        } catch (RuntimeException e) {
+            logger.warn("Authorization of payment {} failed: {}", paymentId, e.getMessage());
+            approved = false;
+        }
+
+        Optional<Payment> completed;
+        try {
+            completed = paymentService.completePendingPayment(paymentId, approved);
+        } finally {
+            claims.release(paymentId);
+        }
+        if (completed.isEmpty() || completed.get().getStatus() == PaymentStatus.PENDING) {
+            return;
+        }
+
+        Payment payment = completed.get();
+        PaymentResponse response = payment.getStatus() == PaymentStatus.SUCCESS
+                ? PaymentResponse.success("Payment processed successfully", payment)
+                : new PaymentResponse(false, payment.getFailureReason(), payment);
+        notifier.notifyCompleted(response, request.getCallbackUrl());
+    }
+}
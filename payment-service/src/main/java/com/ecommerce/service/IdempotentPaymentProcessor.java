@@ -0,0 +1,269 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.PaymentRequest;
+import com.ecommerce.dto.PaymentResponse;
+import com.ecommerce.model.Payment;
+import com.ecommerce.model.Payment.PaymentStatus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes payment processing idempotent per {@code Idempotency-Key} header, or
+ * per order ID when no header is sent. Concurrent duplicates wait for the
+ * first in-flight attempt instead of charging again, completed results are
+ * answered from a bounded cache, and the unique index on
+ * {@code payments.idempotency_key} covers restarts and other instances.
+ * Declined payments give their key up, so a failed order can be retried.
+ *
+ * <p>Deliberately not transactional: waiting on a duplicate must not hold a
+ * database connection.</p>
+ */
+@Service
+public class IdempotentPaymentProcessor {
+
+    private final PaymentService paymentService;
+    private final long inFlightTimeoutMillis;
+    private final int maxBatchSize;
+
+    private final ConcurrentHashMap<String, CompletableFuture<PaymentResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Cache<String, PaymentResponse> completed;
+
+    public IdempotentPaymentProcessor(PaymentService paymentService,
+            @Value("${payment.idempotency.cache-size:10000}") long cacheSize,
+            @Value("${payment.idempotency.cache-ttl:10m}") Duration cacheTtl,
+            @Value("${payment.idempotency.in-flight-timeout-ms:30000}") long inFlightTimeoutMillis,
+            @Value("${payment.batch.max-size:500}") int maxBatchSize) {
+        this.paymentService = paymentService;
+        this.inFlightTimeoutMillis = inFlightTimeoutMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+    }
+
+    /**
+     * Process a payment at most once per key.
+     *
+     * @param idempotencyKey client supplied key; falls back to the order ID
+     */
+    public PaymentResponse process(PaymentRequest request, String idempotencyKey) {
+        String key = resolveKey(request, idempotencyKey);
+        if (key == null) {
+            return paymentService.processPayment(request);
+        }
+
+        PaymentResponse cached = completed.getIfPresent(key);
+        if (cached != null) {
+            return sameRequest(cached.getAmount(), cached.getCurrency(), request) ? cached : keyReused();
+        }
+
+        CompletableFuture<PaymentResponse> attempt = new CompletableFuture<>();
+        CompletableFuture<PaymentResponse> existing = inFlight.putIfAbsent(key, attempt);
+        if (existing != null) {
+            PaymentResponse response = awaitInFlight(existing);
+            if (response.getAmount() != null && !sameRequest(response.getAmount(), response.getCurrency(), request)) {
+                return keyReused();
+            }
+            return response;
+        }
+
+        try {
+            PaymentResponse response = processOnce(request, key);
+            // Failures and pending payments are not cached; a retry finds them through the index
+            if (response.isSuccess() && response.getPaymentId() != null
+                    && !PaymentStatus.PENDING.name().equals(response.getStatus())) {
+                completed.put(key, response);
+            }
+            attempt.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            attempt.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, attempt);
+        }
+    }
+
+    /**
+     * Process a batch of payments, each at most once per order ID. Stored
+     * results are found with one lookup, repeats of an order ID inside the
+     * batch share the first item's result, and everything new is written in
+     * a single transaction.
+     */
+    public List<PaymentResponse> processBatch(List<PaymentRequest> requests) {
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch exceeds the limit of " + maxBatchSize + " payments");
+        }
+
+        PaymentResponse[] responses = new PaymentResponse[requests.size()];
+        String[] keys = new String[requests.size()];
+        Map<String, Integer> firstByKey = new HashMap<>();
+        List<Integer> repeats = new ArrayList<>();
+        List<Integer> pending = new ArrayList<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            String key = resolveKey(requests.get(i), null);
+            keys[i] = key;
+            if (key != null) {
+                if (firstByKey.putIfAbsent(key, i) != null) {
+                    repeats.add(i);
+                    continue;
+                }
+                PaymentResponse cached = completed.getIfPresent(key);
+                if (cached != null) {
+                    responses[i] = sameRequest(cached.getAmount(), cached.getCurrency(), requests.get(i))
+                            ? cached : keyReused();
+                    continue;
+                }
+            }
+            pending.add(i);
+        }
+
+        Map<String, Payment> stored = new HashMap<>();
+        if (!firstByKey.isEmpty()) {
+            paymentService.findByIdempotencyKeys(firstByKey.keySet())
+                    .forEach(payment -> stored.put(payment.getIdempotencyKey(), payment));
+        }
+
+        List<Integer> fresh = new ArrayList<>();
+        for (int i : pending) {
+            Payment payment = keys[i] == null ? null : stored.get(keys[i]);
+            if (payment != null) {
+                responses[i] = replay(payment, requests.get(i));
+            } else {
+                fresh.add(i);
+            }
+        }
+
+        if (!fresh.isEmpty()) {
+            processFresh(requests, keys, fresh, responses);
+        }
+
+        for (int i : repeats) {
+            PaymentResponse first = responses[firstByKey.get(keys[i])];
+            responses[i] = first.getAmount() != null && !sameRequest(first.getAmount(), first.getCurrency(), requests.get(i))
+                    ? keyReused() : first;
+        }
+        return Arrays.asList(responses);
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    // Private helper methods
+
+    private void processFresh(List<PaymentRequest> requests, String[] keys, List<Integer> fresh,
+            PaymentResponse[] responses) {
+        List<PaymentRequest> batch = new ArrayList<>(fresh.size());
+        List<String> batchKeys = new ArrayList<>(fresh.size());
+        for (int i : fresh) {
+            batch.add(requests.get(i));
+            batchKeys.add(keys[i]);
+        }
+
+        List<PaymentResponse> results;
+        try {
+            results = paymentService.processPayments(batch, batchKeys);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request holds one of the keys. Only the PENDING
+            // inserts rolled back and nothing was authorized yet, so settle the
+            // items one at a time and each gets its own answer
+            for (int i : fresh) {
+                responses[i] = process(requests.get(i), null);
+            }
+            return;
+        }
+
+        for (int j = 0; j < fresh.size(); j++) {
+            PaymentResponse response = results.get(j);
+            String key = batchKeys.get(j);
+            if (key != null && response.isSuccess() && response.getPaymentId() != null) {
+                completed.put(key, response);
+            }
+            responses[fresh.get(j)] = response;
+        }
+    }
+
+    private PaymentResponse processOnce(PaymentRequest request, String key) {
+        Optional<Payment> stored = paymentService.findByIdempotencyKey(key);
+        if (stored.isPresent()) {
+            return replay(stored.get(), request);
+        }
+
+        try {
+            return paymentService.processPayment(request, key);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance won the race on the unique index; answer with its result
+            return paymentService.findByIdempotencyKey(key)
+                    .map(payment -> replay(payment, request))
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    static PaymentResponse replay(Payment payment, PaymentRequest request) {
+        if (!sameRequest(payment.getAmount(), payment.getCurrency(), request)) {
+            return keyReused();
+        }
+        if (payment.getStatus() == PaymentStatus.PENDING) {
+            return new PaymentResponse(true, "Payment is still being processed", payment);
+        }
+        if (payment.getStatus() == PaymentStatus.FAILED) {
+            return PaymentResponse.failure("Payment processing failed");
+        }
+        return PaymentResponse.success("Payment processed successfully", payment);
+    }
+
+    static boolean sameRequest(BigDecimal amount, String currency, PaymentRequest request) {
+        return request.getAmount() != null && amount.compareTo(request.getAmount()) == 0
+                && currency.equals(request.getCurrency());
+    }
+
+    static PaymentResponse keyReused() {
+        return PaymentResponse.failure("Idempotency key was already used for a different payment");
+    }
+
+    private PaymentResponse awaitInFlight(CompletableFuture<PaymentResponse> attempt) {
+        try {
+            return attempt.get(inFlightTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return PaymentResponse.failure("Payment is still being processed, retry later");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return PaymentResponse.failure("Payment is still being processed, retry later");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    static String resolveKey(PaymentRequest request, String idempotencyKey) {
+        String key = idempotencyKey != null && !idempotencyKey.isBlank() ? idempotencyKey : request.getOrderId();
+        if (key == null || key.isBlank()) {
+            return null;
+        }
+        // Scope keys per user so two users can never collide on the same key
+        return request.getUserId() + ":" + key;
+    }
+}
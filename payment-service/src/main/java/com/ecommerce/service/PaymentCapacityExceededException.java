@@ -0,0 +1,12 @@
+package com.ecommerce.service;
+
+/**
+ * Thrown when the asynchronous payment executor cannot accept more work.
+ * Callers should answer with 503 so clients back off instead of queueing.
+ */
+public class PaymentCapacityExceededException extends RuntimeException {
+
+    public PaymentCapacityExceededException(String message) {
+        super(message);
+    }
+}
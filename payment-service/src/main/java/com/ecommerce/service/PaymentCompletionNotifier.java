@@ -0,0 +1,142 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.PaymentResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Delivers the final result of an asynchronous payment to whoever is waiting
+ * for it: Server-Sent Events subscribers on this instance and the optional
+ * callback URL of the request. Clients that do neither poll
+ * {@code GET /api/payments/{paymentId}}.
+ */
+@Component
+public class PaymentCompletionNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentCompletionNotifier.class);
+
+    private final RestClient restClient;
+    private final Set<String> allowedCallbackHosts;
+    private final int callbackMaxAttempts;
+    private final Duration sseTimeout;
+
+    private final Map<String, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    public PaymentCompletionNotifier(@Qualifier("callbackRestClient") RestClient restClient,
+            @Value("${payment.async.callback.allowed-hosts:}") Set<String> allowedCallbackHosts,
+            @Value("${payment.async.callback.max-attempts:3}") int callbackMaxAttempts,
+            @Value("${payment.async.sse-timeout:60s}") Duration sseTimeout) {
+        this.restClient = restClient;
+        this.allowedCallbackHosts = allowedCallbackHosts;
+        this.callbackMaxAttempts = callbackMaxAttempts;
+        this.sseTimeout = sseTimeout;
+    }
+
+    /**
+     * Only http(s) URLs on a configured host are accepted, so the service
+     * cannot be used to reach arbitrary internal addresses.
+     */
+    public boolean isAllowedCallback(String callbackUrl) {
+        try {
+            URI uri = URI.create(callbackUrl);
+            return ("http".equals(uri.getScheme()) || "https".equals(uri.getScheme()))
+                    && uri.getHost() != null && allowedCallbackHosts.contains(uri.getHost());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Register an SSE subscriber for a payment. The caller must check the
+     * stored status after subscribing so a result that completed in between
+     * is not missed.
+     */
+    public SseEmitter subscribe(String paymentId) {
+        SseEmitter emitter = new SseEmitter(sseTimeout.toMillis());
+        List<SseEmitter> emitters = subscribers.computeIfAbsent(paymentId, id -> new CopyOnWriteArrayList<>());
+        emitters.add(emitter);
+        Runnable remove = () -> subscribers.computeIfPresent(paymentId, (id, list) -> {
+            list.remove(emitter);
+            return list.isEmpty() ? null : list;
+        });
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        return emitter;
+    }
+
+    /**
+     * Send a final result to one SSE subscriber and close the stream.
+     */
+    public void send(SseEmitter emitter, PaymentResponse response) {
+        try {
+            emitter.send(SseEmitter.event().name("payment").data(response, MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the stream was already completed
+            emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * Publish a final result to SSE subscribers and the callback URL, if any.
+     * Called on the payment executor, so callback retries never block a
+     * request thread.
+     */
+    public void notifyCompleted(PaymentResponse response, String callbackUrl) {
+        List<SseEmitter> emitters = subscribers.remove(response.getPaymentId());
+        if (emitters != null) {
+            emitters.forEach(emitter -> send(emitter, response));
+        }
+        if (callbackUrl != null && !callbackUrl.isBlank()) {
+            postCallback(callbackUrl, response);
+        }
+    }
+
+    // Private helper methods
+
+    private void postCallback(String callbackUrl, PaymentResponse response) {
+        for (int attempt = 1; attempt <= callbackMaxAttempts; attempt++) {
+            try {
+                restClient.post()
+                        .uri(callbackUrl)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(response)
+                        .retrieve()
+                        .toBodilessEntity();
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Payment callback to {} failed (attempt {}/{}): {}",
+                        callbackUrl, attempt, callbackMaxAttempts, e.getMessage());
+                if (attempt < callbackMaxAttempts && !backOff(attempt)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static boolean backOff(int attempt) {
+        try {
+            Thread.sleep(500L * attempt);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.PaymentRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stand-in for the external payment gateway. Authorization is the slow,
+ * remote step of processing a payment, so callers should invoke it without
+ * holding a transaction or a pooled connection. Every authorization is
+ * timed as {@code payment.gateway.authorize}, tagged by outcome.
+ */
+@Component
+public class PaymentGateway {
+
+    private final Timer approvedTimer;
+    private final Timer declinedTimer;
+    private final Duration simulatedLatency;
+
+    public PaymentGateway(MeterRegistry meterRegistry,
+            @Value("${payment.gateway.simulated-latency:0ms}") Duration simulatedLatency) {
+        this.simulatedLatency = simulatedLatency;
+        this.approvedTimer = authorizeTimer(meterRegistry, "approved");
+        this.declinedTimer = authorizeTimer(meterRegistry, "declined");
+    }
+
+    /**
+     * Authorize a payment request
+     */
+    public boolean authorize(PaymentRequest request) {
+        long start = System.nanoTime();
+        boolean approved = decide(request);
+        (approved ? approvedTimer : declinedTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return approved;
+    }
+
+    // Private helper methods
+
+    private static Timer authorizeTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("payment.gateway.authorize")
+                .description("Time spent authorizing a payment with the gateway")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private boolean decide(PaymentRequest request) {
+        // Simulate payment processing logic
+        // In a real system, this would integrate with payment gateways
+        if (!simulatedLatency.isZero()) {
+            try {
+                Thread.sleep(simulatedLatency.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        // For demo purposes, simulate different outcomes based on amount
+        BigDecimal amount = request.getAmount();
+
+        // Fail payments over $10,000 (simulate high-value transaction restrictions)
+        if (amount.compareTo(new BigDecimal("10000")) > 0) {
+            return false;
+        }
+
+        // Fail payments with specific test card numbers
+        if (request.getDetails() != null &&
+                request.getDetails().getCardNumber() != null &&
+                request.getDetails().getCardNumber().endsWith("0000")) {
+            return false;
+        }
+
+        // 95% success rate for other payments
+        return Math.random() < 0.95;
+    }
+}
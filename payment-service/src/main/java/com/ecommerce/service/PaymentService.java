@@ -1,71 +1,283 @@
 package com.ecommerce.service;
 
+import com.ecommerce.config.ReadYourWritesTracker;
+import com.ecommerce.config.ReplicaRoutingContext;
+import com.ecommerce.dto.HistoryCursor;
+import com.ecommerce.dto.PaymentHistoryPage;
 import com.ecommerce.dto.PaymentRequest;
 import com.ecommerce.dto.PaymentResponse;
+import com.ecommerce.dto.PaymentSummary;
 import com.ecommerce.model.Payment;
 import com.ecommerce.model.Payment.PaymentStatus;
+import com.ecommerce.model.PaymentRefund;
+import com.ecommerce.repository.PaymentRefundRepository;
 import com.ecommerce.repository.PaymentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-
+import java.util.function.Consumer;
+
+/**
+ * Payment operations. There is no class-wide transaction: gateway
+ * authorization runs with no transaction or connection held, writes open a
+ * transaction only around the statements that need one, and reads run in
+ * read-only transactions so Hibernate skips flushing and entity snapshots.
+ * Status lookups are answered from {@link PaymentStatusCache} first, which
+ * every write here keeps current. Processing and refunds are timed as
+ * {@code payment.process} and {@code payment.refund}, tagged by outcome.
+ */
 @Service
-@Transactional
 public class PaymentService {
 
+    private static final Logger logger = LoggerFactory.getLogger(PaymentService.class);
+
     @Autowired
     private PaymentRepository paymentRepository;
 
+    @Autowired
+    private PaymentRefundRepository paymentRefundRepository;
+
+    @Autowired
+    private PaymentGateway paymentGateway;
+
+    @Autowired
+    private ReadYourWritesTracker readYourWrites;
+
+    @Autowired
+    private PaymentStatusCache statusCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PendingPaymentClaims pendingClaims;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Read-only, so the routing data source sends the export pages to a replica
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    // Present only when payment.status-cache.notify.enabled=true
+    @Autowired(required = false)
+    private PaymentStatusChannel statusChannel;
+
+    @Value("${payment.history.default-page-size:20}")
+    private int defaultHistoryPageSize;
+
+    @Value("${payment.history.max-page-size:100}")
+    private int maxHistoryPageSize;
+
+    @Value("${payment.history.export-batch-size:500}")
+    private int exportBatchSize;
+
+    @PostConstruct
+    void initReadOnlyTransactionTemplate() {
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
     /**
      * Process a payment request
      */
     public PaymentResponse processPayment(PaymentRequest request) {
+        return processPayment(request, null);
+    }
+
+    /**
+     * Process a payment request. With an idempotency key the payment is first
+     * stored as PENDING under that key, and only authorized once the insert
+     * won: a concurrent duplicate on any instance fails on the unique index
+     * before anything is charged. Declined payments give the key up so the
+     * order can be retried. Use {@link IdempotentPaymentProcessor} rather
+     * than calling this directly.
+     *
+     * @throws DataIntegrityViolationException when another request holds the key
+     */
+    public PaymentResponse processPayment(PaymentRequest request, String idempotencyKey) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             // Validate payment request
             if (!isValidPaymentRequest(request)) {
+                outcome = "invalid";
                 return PaymentResponse.failure("Invalid payment request");
             }
 
-            // Create payment entity
-            Payment payment = new Payment(
-                    request.getUserId(),
-                    request.getAmount(),
-                    request.getCurrency(),
-                    request.getPaymentMethod(),
-                    request.getOrderId());
+            Payment savedPayment;
+            if (idempotencyKey == null) {
+                // Nothing to deduplicate; authorize, then a single insert
+                savedPayment = paymentRepository.save(preparePayment(request));
+                paymentChanged(savedPayment);
+            } else {
+                Payment reserved = paymentRepository.save(newPendingPayment(request, idempotencyKey,
+                        pendingClaims.claimExpiry()));
+                savedPayment = authorizeReserved(List.of(reserved), List.of(request)).get(0);
+            }
+            outcome = savedPayment.getStatus() == PaymentStatus.SUCCESS ? "success" : "declined";
+            return toProcessResponse(savedPayment);
 
-            // Generate transaction ID
-            String transactionId = generateTransactionId();
-            payment.setTransactionId(transactionId);
+        } catch (DataIntegrityViolationException e) {
+            // Duplicate idempotency key; the caller answers with the stored payment
+            outcome = "duplicate";
+            throw e;
+        } catch (Exception e) {
+            return PaymentResponse.failure("Payment processing error: " + e.getMessage());
+        } finally {
+            sample.stop(processTimer(outcome));
+        }
+    }
 
-            // Store payment details (masked for security)
-            if (request.getDetails() != null) {
-                String maskedDetails = maskPaymentDetails(request.getDetails());
-                payment.setPaymentDetails(maskedDetails);
+    /**
+     * Process a batch of payment requests. Every valid item is first stored
+     * as PENDING in one transaction through a single saveAll, so Hibernate
+     * sends the inserts as JDBC batches and a duplicate key rolls the whole
+     * batch back before anything is charged. The items are then authorized
+     * and their outcomes written in a second transaction.
+     * Invalid items fail on their own. Results are returned in request order.
+     *
+     * @param idempotencyKeys key per request, or {@code null} entries for none
+     * @throws DataIntegrityViolationException when another request holds one of the keys
+     */
+    public List<PaymentResponse> processPayments(List<PaymentRequest> requests, List<String> idempotencyKeys) {
+        PaymentResponse[] responses = new PaymentResponse[requests.size()];
+        List<Payment> payments = new ArrayList<>(requests.size());
+        List<PaymentRequest> accepted = new ArrayList<>(requests.size());
+        List<Integer> positions = new ArrayList<>(requests.size());
+
+        LocalDateTime claimedUntil = pendingClaims.claimExpiry();
+        for (int i = 0; i < requests.size(); i++) {
+            PaymentRequest request = requests.get(i);
+            if (!isValidPaymentRequest(request)) {
+                responses[i] = PaymentResponse.failure("Invalid payment request");
+                continue;
             }
+            payments.add(newPendingPayment(request, idempotencyKeys.get(i), claimedUntil));
+            accepted.add(request);
+            positions.add(i);
+        }
 
-            // Simulate payment processing
-            boolean paymentSuccessful = simulatePaymentProcessing(request);
+        List<Payment> completed = authorizeReserved(paymentRepository.saveAll(payments), accepted);
+        for (int i = 0; i < completed.size(); i++) {
+            responses[positions.get(i)] = toProcessResponse(completed.get(i));
+        }
+        return Arrays.asList(responses);
+    }
+
+    /**
+     * Store a payment in PENDING state, claimed by this instance until
+     * {@code claimedUntil}, so it can be authorized in the background.
+     * Returns empty when the request is invalid.
+     */
+    public Optional<Payment> createPendingPayment(PaymentRequest request, String idempotencyKey,
+            LocalDateTime claimedUntil) {
+        if (!isValidPaymentRequest(request)) {
+            return Optional.empty();
+        }
+
+        Payment savedPayment = paymentRepository.save(newPendingPayment(request, idempotencyKey, claimedUntil));
+        paymentChanged(savedPayment);
+        return Optional.of(savedPayment);
+    }
+
+    /**
+     * Record the gateway outcome for a PENDING payment; a declined payment
+     * gives its idempotency key up. Payments that already left PENDING (for
+     * example failed by the stale sweep) are not changed.
+     *
+     * @return the payment as stored after the update
+     */
+    @Transactional
+    public Optional<Payment> completePendingPayment(Long paymentId, boolean approved) {
+        List<Long> ids = List.of(paymentId);
+        return Optional.ofNullable(completePendingPayments(ids, approved ? ids : List.of()).get(paymentId));
+    }
+
+    /**
+     * Delete a PENDING payment that was never handed to the gateway, e.g.
+     * because the executor was full, so a retry with the same key starts over.
+     */
+    @Transactional
+    public void discardPendingPayment(Long paymentId) {
+        if (paymentRepository.deleteIf(paymentId, PaymentStatus.PENDING) > 0) {
+            if (statusChannel != null) {
+                statusChannel.publish(paymentId);
+            }
+            afterCommit(() -> statusCache.evict(paymentId));
+        }
+    }
 
-            if (paymentSuccessful) {
-                payment.setStatus(PaymentStatus.SUCCESS);
-                Payment savedPayment = paymentRepository.save(payment);
-                return PaymentResponse.success("Payment processed successfully", savedPayment);
+    /**
+     * Find the payment holding an idempotency key. FAILED payments do not
+     * keep their key; one stored before that rule gives it up here, so the
+     * order can be retried.
+     */
+    public Optional<Payment> findByIdempotencyKey(String idempotencyKey) {
+        Optional<Payment> payment = paymentRepository.findByIdempotencyKey(idempotencyKey);
+        if (payment.isPresent() && payment.get().getStatus() == PaymentStatus.FAILED) {
+            releaseIdempotencyKey(payment.get().getId());
+            return Optional.empty();
+        }
+        return payment;
+    }
+
+    /**
+     * The payments holding any of the given idempotency keys, with FAILED
+     * ones giving their key up as in {@link #findByIdempotencyKey(String)}.
+     */
+    public List<Payment> findByIdempotencyKeys(Collection<String> idempotencyKeys) {
+        List<Payment> held = new ArrayList<>();
+        for (Payment payment : paymentRepository.findByIdempotencyKeyIn(idempotencyKeys)) {
+            if (payment.getStatus() == PaymentStatus.FAILED) {
+                releaseIdempotencyKey(payment.getId());
             } else {
-                payment.setStatus(PaymentStatus.FAILED);
-                payment.setFailureReason("Payment processing failed");
-                Payment savedPayment = paymentRepository.save(payment);
-                return PaymentResponse.failure("Payment processing failed");
+                held.add(payment);
             }
+        }
+        return held;
+    }
 
-        } catch (Exception e) {
-            return PaymentResponse.failure("Payment processing error: " + e.getMessage());
+    /**
+     * Fail PENDING payments whose claim expired before {@code now}, i.e. the
+     * instance processing them stopped renewing it, e.g. because it restarted.
+     * Payments stored without a claim count once created before
+     * {@code unclaimedCutoff}.
+     */
+    @Transactional
+    public int failStalePendingPayments(LocalDateTime now, LocalDateTime unclaimedCutoff) {
+        int failed = paymentRepository.updateStatusUnclaimed(PaymentStatus.PENDING, now, unclaimedCutoff,
+                PaymentStatus.FAILED, "Payment processing was interrupted");
+        if (failed > 0) {
+            // The failed IDs are unknown here; drop every cached PENDING payment
+            if (statusChannel != null) {
+                statusChannel.publishPendingChanged();
+            }
+            afterCommit(statusCache::evictPending);
         }
+        return failed;
     }
 
     /**
@@ -73,7 +285,7 @@ public class PaymentService {
      */
     public PaymentResponse validatePayment(String paymentId) {
         try {
-            Optional<Payment> paymentOpt = paymentRepository.findById(Long.parseLong(paymentId));
+            Optional<Payment> paymentOpt = findPayment(Long.parseLong(paymentId));
 
             if (paymentOpt.isEmpty()) {
                 return PaymentResponse.failure("Payment not found");
@@ -97,7 +309,7 @@ public class PaymentService {
      */
     public PaymentResponse getPaymentStatus(String paymentId) {
         try {
-            Optional<Payment> paymentOpt = paymentRepository.findById(Long.parseLong(paymentId));
+            Optional<Payment> paymentOpt = findPayment(Long.parseLong(paymentId));
 
             if (paymentOpt.isEmpty()) {
                 return PaymentResponse.failure("Payment not found");
@@ -114,25 +326,67 @@ public class PaymentService {
     }
 
     /**
-     * Get payment history for a user
+     * Get one page of payment history for a user, newest first. Pages are
+     * addressed by an opaque (createdAt, id) cursor so every page costs the
+     * same regardless of how deep into the history it is.
+     */
+    @Transactional(readOnly = true)
+    public PaymentHistoryPage getPaymentHistory(String userId, String cursor, Integer size) {
+        int pageSize = size == null ? defaultHistoryPageSize : Math.max(1, Math.min(size, maxHistoryPageSize));
+        try (ReplicaRoutingContext.Scope sticky = readYourWrites.stickyScope(userKey(userId))) {
+            return fetchHistoryPage(userId, cursor, pageSize);
+        }
+    }
+
+    /**
+     * Walk a user's whole payment history page by page, handing each row to
+     * the consumer. Memory stays bounded by one page, and each page is read in
+     * its own short read-only transaction so a slow consumer never pins a
+     * connection.
      */
-    public List<Payment> getPaymentHistory(String userId) {
-        return paymentRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    public void exportPaymentHistory(String userId, Consumer<PaymentSummary> consumer) {
+        try (ReplicaRoutingContext.Scope sticky = readYourWrites.stickyScope(userKey(userId))) {
+            String cursor = null;
+            do {
+                String after = cursor;
+                PaymentHistoryPage page = readOnlyTransactionTemplate.execute(status ->
+                        fetchHistoryPage(userId, after, exportBatchSize));
+                page.getPayments().forEach(consumer);
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+        }
     }
 
     /**
-     * Get payment by transaction ID
+     * Get payment by transaction ID. Answered from the status cache when
+     * possible, so the result carries no stored card details.
      */
     public Optional<Payment> getPaymentByTransactionId(String transactionId) {
-        return paymentRepository.findByTransactionId(transactionId);
+        Optional<Payment> cached = statusCache.getByTransactionId(transactionId);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        Optional<Payment> payment;
+        try (ReplicaRoutingContext.Scope sticky = readYourWrites.stickyScope("transaction:" + transactionId)) {
+            payment = paymentRepository.findByTransactionId(transactionId);
+        }
+        payment.ifPresent(statusCache::putLoaded);
+        return payment;
     }
 
     /**
-     * Refund a payment
+     * Refund a payment, in full when no amount is given. The balance check and
+     * the status change happen in one conditional UPDATE, so concurrent
+     * refunds can never return more than was paid and no row lock is held
+     * while the request is validated.
      */
-    public PaymentResponse refundPayment(String paymentId) {
+    @Transactional
+    public PaymentResponse refundPayment(String paymentId, BigDecimal amount, String reason) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "rejected";
         try {
-            Optional<Payment> paymentOpt = paymentRepository.findById(Long.parseLong(paymentId));
+            Long id = Long.parseLong(paymentId);
+            Optional<Payment> paymentOpt = paymentRepository.findById(id);
 
             if (paymentOpt.isEmpty()) {
                 return PaymentResponse.failure("Payment not found");
@@ -144,21 +398,259 @@ public class PaymentService {
                 return PaymentResponse.failure("Only successful payments can be refunded");
             }
 
-            // Simulate refund processing
-            payment.setStatus(PaymentStatus.REFUNDED);
-            Payment savedPayment = paymentRepository.save(payment);
+            BigDecimal remaining = payment.getAmount().subtract(payment.getRefundedAmount());
+            BigDecimal refundAmount = amount == null ? remaining : amount;
+            if (refundAmount.signum() <= 0) {
+                return PaymentResponse.failure("Refund amount must be positive");
+            }
+            if (refundAmount.compareTo(remaining) > 0) {
+                return PaymentResponse.failure("Refund exceeds the remaining amount of " + remaining);
+            }
+
+            // The checks above ran on a snapshot; applyRefund re-checks them against the
+            // locked row, so a concurrent refund that got there first leaves nothing to refund
+            if (paymentRepository.applyRefund(id, refundAmount, PaymentStatus.SUCCESS, PaymentStatus.REFUNDED) == 0) {
+                outcome = "conflict";
+                return PaymentResponse.failure("Payment was refunded concurrently; nothing was refunded");
+            }
+            paymentRefundRepository.save(new PaymentRefund(id, refundAmount, reason));
 
-            return PaymentResponse.success("Payment refunded successfully", savedPayment);
+            Payment savedPayment = paymentRepository.findById(id).orElseThrow();
+            paymentChanged(savedPayment);
+
+            boolean full = savedPayment.getStatus() == PaymentStatus.REFUNDED;
+            outcome = full ? "refunded" : "partially_refunded";
+            String message = full ? "Payment refunded successfully" : "Payment partially refunded";
+            return PaymentResponse.success(message, savedPayment);
 
         } catch (NumberFormatException e) {
             return PaymentResponse.failure("Invalid payment ID format");
         } catch (Exception e) {
+            // Never keep a balance change without its refund row
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            outcome = "error";
             return PaymentResponse.failure("Refund error: " + e.getMessage());
+        } finally {
+            sample.stop(refundTimer(outcome));
         }
     }
 
+    /**
+     * Get the refunds of a payment, oldest first
+     */
+    @Transactional(readOnly = true)
+    public List<PaymentRefund> getRefunds(String paymentId) {
+        return paymentRefundRepository.findByPaymentIdOrderByCreatedAtAsc(Long.parseLong(paymentId));
+    }
+
     // Private helper methods
 
+    private Timer processTimer(String outcome) {
+        return Timer.builder("payment.process")
+                .description("Time spent processing a payment, including gateway authorization")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Timer refundTimer(String outcome) {
+        return Timer.builder("payment.refund")
+                .description("Time spent refunding a payment, before commit")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    // Refresh the status cache and keep this payment's and this user's reads
+    // on the primary for a while
+    private void paymentChanged(Payment payment) {
+        readYourWrites.recordWrite(paymentKey(String.valueOf(payment.getId())));
+        readYourWrites.recordWrite("transaction:" + payment.getTransactionId());
+        readYourWrites.recordWrite(userKey(payment.getUserId()));
+
+        // Sent inside the transaction so other instances hear of it on commit
+        if (statusChannel != null) {
+            statusChannel.publish(payment.getId());
+        }
+        afterCommit(() -> statusCache.put(payment));
+    }
+
+    // Run once the surrounding transaction commits, or now when there is none
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private Optional<Payment> findPayment(Long paymentId) {
+        Optional<Payment> cached = statusCache.get(paymentId);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        Optional<Payment> payment;
+        try (ReplicaRoutingContext.Scope sticky = readYourWrites.stickyScope(paymentKey(String.valueOf(paymentId)))) {
+            payment = paymentRepository.findById(paymentId);
+        }
+        payment.ifPresent(statusCache::putLoaded);
+        return payment;
+    }
+
+    static String paymentKey(String paymentId) {
+        return "payment:" + paymentId;
+    }
+
+    private static String userKey(String userId) {
+        return "user:" + userId;
+    }
+
+    private Payment newPendingPayment(PaymentRequest request, String idempotencyKey, LocalDateTime claimedUntil) {
+        Payment payment = new Payment(
+                request.getUserId(),
+                request.getAmount(),
+                request.getCurrency(),
+                request.getPaymentMethod(),
+                request.getOrderId());
+        payment.setIdempotencyKey(idempotencyKey);
+        payment.setTransactionId(generateTransactionId());
+        if (request.getDetails() != null) {
+            payment.setPaymentDetails(maskPaymentDetails(request.getDetails()));
+        }
+        payment.setStatus(PaymentStatus.PENDING);
+        payment.setClaimedUntil(claimedUntil);
+        return payment;
+    }
+
+    // Authorize payments stored as PENDING by this instance and record the
+    // outcomes in one transaction; returns them in the same order
+    private List<Payment> authorizeReserved(List<Payment> reserved, List<PaymentRequest> requests) {
+        reserved.forEach(payment -> pendingClaims.track(payment.getId()));
+        try {
+            boolean[] approved = new boolean[reserved.size()];
+            for (int i = 0; i < reserved.size(); i++) {
+                try {
+                    approved[i] = paymentGateway.authorize(requests.get(i));
+                } catch (RuntimeException e) {
+                    logger.warn("Authorization of payment {} failed: {}", reserved.get(i).getId(), e.getMessage());
+                }
+            }
+            List<Long> ids = new ArrayList<>(reserved.size());
+            List<Long> approvedIds = new ArrayList<>(reserved.size());
+            for (int i = 0; i < reserved.size(); i++) {
+                ids.add(reserved.get(i).getId());
+                if (approved[i]) {
+                    approvedIds.add(reserved.get(i).getId());
+                }
+            }
+            return transactionTemplate.execute(status -> {
+                Map<Long, Payment> stored = completePendingPayments(ids, approvedIds);
+                List<Payment> completed = new ArrayList<>(ids.size());
+                for (Long id : ids) {
+                    Payment payment = stored.get(id);
+                    if (payment == null) {
+                        throw new IllegalStateException("Reserved payment disappeared");
+                    }
+                    completed.add(payment);
+                }
+                return completed;
+            });
+        } finally {
+            reserved.forEach(payment -> pendingClaims.release(payment.getId()));
+        }
+    }
+
+    // Record gateway outcomes for PENDING payments with one UPDATE for the
+    // approved ones, one for the declined ones and one read back; returns
+    // the stored payments by id. Must run inside a transaction.
+    private Map<Long, Payment> completePendingPayments(List<Long> ids, List<Long> approvedIds) {
+        List<Long> declinedIds = new ArrayList<>(ids);
+        declinedIds.removeAll(approvedIds);
+        if (!approvedIds.isEmpty()) {
+            paymentRepository.updateStatusAllIf(approvedIds, PaymentStatus.PENDING, PaymentStatus.SUCCESS, null);
+        }
+        if (!declinedIds.isEmpty()) {
+            paymentRepository.failAllIf(declinedIds, PaymentStatus.PENDING, PaymentStatus.FAILED,
+                    "Payment processing failed");
+        }
+
+        Map<Long, Payment> stored = new HashMap<>();
+        for (Payment payment : paymentRepository.findAllById(ids)) {
+            stored.put(payment.getId(), payment);
+            paymentChanged(payment);
+        }
+        for (Long id : approvedIds) {
+            Payment payment = stored.get(id);
+            if (payment == null || payment.getStatus() != PaymentStatus.SUCCESS) {
+                // Only possible when this instance stopped renewing its claim for longer than the timeout
+                logger.error("Payment {} was approved by the gateway after it had left PENDING; "
+                        + "the authorization must be voided", id);
+            }
+        }
+        return stored;
+    }
+
+    private void releaseIdempotencyKey(Long paymentId) {
+        transactionTemplate.executeWithoutResult(status ->
+                paymentRepository.releaseIdempotencyKeyIf(paymentId, PaymentStatus.FAILED));
+    }
+
+    private Payment preparePayment(PaymentRequest request) {
+        // Create payment entity
+        Payment payment = new Payment(
+                request.getUserId(),
+                request.getAmount(),
+                request.getCurrency(),
+                request.getPaymentMethod(),
+                request.getOrderId());
+
+        // Generate transaction ID
+        payment.setTransactionId(generateTransactionId());
+
+        // Store payment details (masked for security)
+        if (request.getDetails() != null) {
+            payment.setPaymentDetails(maskPaymentDetails(request.getDetails()));
+        }
+
+        // Simulate payment processing
+        if (paymentGateway.authorize(request)) {
+            payment.setStatus(PaymentStatus.SUCCESS);
+        } else {
+            payment.setStatus(PaymentStatus.FAILED);
+            payment.setFailureReason("Payment processing failed");
+        }
+        return payment;
+    }
+
+    private PaymentResponse toProcessResponse(Payment savedPayment) {
+        if (savedPayment.getStatus() == PaymentStatus.SUCCESS) {
+            return PaymentResponse.success("Payment processed successfully", savedPayment);
+        }
+        return PaymentResponse.failure("Payment processing failed");
+    }
+
+    private PaymentHistoryPage fetchHistoryPage(String userId, String cursor, int pageSize) {
+        // Fetch one extra row to learn whether another page exists
+        Limit limit = Limit.of(pageSize + 1);
+        List<PaymentSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = paymentRepository.findHistoryFirstPage(userId, limit);
+        } else {
+            HistoryCursor position = HistoryCursor.decode(cursor);
+            rows = paymentRepository.findHistoryPageAfter(userId, position.createdAt(), position.id(), limit);
+        }
+
+        if (rows.size() <= pageSize) {
+            return new PaymentHistoryPage(rows, null);
+        }
+        List<PaymentSummary> page = rows.subList(0, pageSize);
+        PaymentSummary last = page.get(pageSize - 1);
+        return new PaymentHistoryPage(page, new HistoryCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
     private boolean isValidPaymentRequest(PaymentRequest request) {
         return request != null &&
                 request.getUserId() != null && !request.getUserId().trim().isEmpty() &&
@@ -167,11 +659,12 @@ public class PaymentService {
                 request.getPaymentMethod() != null && !request.getPaymentMethod().trim().isEmpty();
     }
 
-    private String generateTransactionId() {
+    // Package-private for the benchmarks module
+    static String generateTransactionId() {
         return "TXN_" + UUID.randomUUID().toString().replace("-", "").substring(0, 16).toUpperCase();
     }
 
-    private String maskPaymentDetails(PaymentRequest.PaymentDetails details) {
+    static String maskPaymentDetails(PaymentRequest.PaymentDetails details) {
         // Mask sensitive information for storage
         StringBuilder masked = new StringBuilder();
         if (details.getCardNumber() != null && details.getCardNumber().length() > 4) {
@@ -183,27 +676,4 @@ public class PaymentService {
         }
         return masked.toString();
     }
-
-    private boolean simulatePaymentProcessing(PaymentRequest request) {
-        // Simulate payment processing logic
-        // In a real system, this would integrate with payment gateways
-
-        // For demo purposes, simulate different outcomes based on amount
-        BigDecimal amount = request.getAmount();
-
-        // Fail payments over $10,000 (simulate high-value transaction restrictions)
-        if (amount.compareTo(new BigDecimal("10000")) > 0) {
-            return false;
-        }
-
-        // Fail payments with specific test card numbers
-        if (request.getDetails() != null &&
-                request.getDetails().getCardNumber() != null &&
-                request.getDetails().getCardNumber().endsWith("0000")) {
-            return false;
-        }
-
-        // 95% success rate for other payments
-        return Math.random() < 0.95;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,135 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Payment;
+import com.ecommerce.model.Payment.PaymentStatus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Near cache of payment snapshots for the status polling paths
+ * ({@code getPaymentStatus}, {@code validatePayment}), keyed by payment ID
+ * and by transaction ID. {@link PaymentService} writes changed payments
+ * straight into it; other instances are told to drop their copies through
+ * {@link PaymentStatusChannel} when that is enabled, and the TTL bounds
+ * staleness when it is not.
+ *
+ * <p>Entries are immutable snapshots; every read hands out a fresh detached
+ * {@link Payment} so callers cannot change the cached state. A written
+ * snapshot only replaces one with an older row version, and a
+ * read-through load never replaces an entry, so a slow read or an
+ * out-of-order commit callback cannot put an older state back.</p>
+ */
+@Component
+public class PaymentStatusCache {
+
+    private final Cache<Long, Snapshot> byId;
+    private final Cache<String, Long> idsByTransaction;
+
+    public PaymentStatusCache(@Value("${payment.status-cache.max-size:50000}") long maxSize,
+            @Value("${payment.status-cache.ttl:30s}") Duration ttl) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.idsByTransaction = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public Optional<Payment> get(Long paymentId) {
+        Snapshot snapshot = byId.getIfPresent(paymentId);
+        return snapshot == null ? Optional.empty() : Optional.of(snapshot.toPayment());
+    }
+
+    public Optional<Payment> getByTransactionId(String transactionId) {
+        Long paymentId = idsByTransaction.getIfPresent(transactionId);
+        return paymentId == null ? Optional.empty() : get(paymentId);
+    }
+
+    /**
+     * Cache a payment this instance just changed.
+     */
+    public void put(Payment payment) {
+        byId.asMap().merge(payment.getId(), Snapshot.of(payment), PaymentStatusCache::newer);
+        mapTransaction(payment);
+    }
+
+    /**
+     * Cache a payment read from the database after a miss, unless a write
+     * cached it in the meantime.
+     */
+    public void putLoaded(Payment payment) {
+        byId.asMap().putIfAbsent(payment.getId(), Snapshot.of(payment));
+        mapTransaction(payment);
+    }
+
+    public void evict(Long paymentId) {
+        // The transaction ID mapping never changes, so it can stay
+        byId.invalidate(paymentId);
+    }
+
+    /**
+     * Drop every cached PENDING payment, e.g. after the stale sweep failed an
+     * unknown set of them.
+     */
+    public void evictPending() {
+        byId.asMap().values().removeIf(snapshot -> snapshot.status() == PaymentStatus.PENDING);
+    }
+
+    public void evictAll() {
+        byId.invalidateAll();
+    }
+
+    // Private helper methods
+
+    private void mapTransaction(Payment payment) {
+        if (payment.getTransactionId() != null) {
+            idsByTransaction.put(payment.getTransactionId(), payment.getId());
+        }
+    }
+
+    // Keep the cached snapshot only when its row version is strictly newer.
+    // Versions rather than updatedAt: PENDING rows are stamped by the JVM
+    // clock, the conditional UPDATEs by the database's
+    private static Snapshot newer(Snapshot cached, Snapshot written) {
+        if (cached.version() != null && written.version() != null && cached.version() > written.version()) {
+            return cached;
+        }
+        return written;
+    }
+
+    private record Snapshot(Long id, String userId, BigDecimal amount, BigDecimal refundedAmount,
+            String currency, PaymentStatus status, String paymentMethod, String transactionId, String orderId,
+            String failureReason, LocalDateTime createdAt, LocalDateTime updatedAt, Long version) {
+
+        static Snapshot of(Payment payment) {
+            return new Snapshot(payment.getId(), payment.getUserId(), payment.getAmount(),
+                    payment.getRefundedAmount(), payment.getCurrency(), payment.getStatus(),
+                    payment.getPaymentMethod(), payment.getTransactionId(), payment.getOrderId(),
+                    payment.getFailureReason(), payment.getCreatedAt(), payment.getUpdatedAt(),
+                    payment.getVersion());
+        }
+
+        Payment toPayment() {
+            // Masked card details and the idempotency key are not needed for status answers
+            Payment payment = new Payment(userId, amount, currency, paymentMethod, orderId);
+            payment.setId(id);
+            payment.setRefundedAmount(refundedAmount);
+            payment.setStatus(status);
+            payment.setTransactionId(transactionId);
+            payment.setFailureReason(failureReason);
+            payment.setCreatedAt(createdAt);
+            payment.setUpdatedAt(updatedAt);
+            payment.setVersion(version);
+            return payment;
+        }
+    }
+}
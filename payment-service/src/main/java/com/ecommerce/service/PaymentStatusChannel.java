@@ -0,0 +1,164 @@
+package com.ecommerce.service;
+
+import com.ecommerce.config.ReadYourWritesTracker;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Optional cross-instance invalidation for {@link PaymentStatusCache} over
+ * Postgres LISTEN/NOTIFY. Every status change is announced on a channel and
+ * each instance drops its cached copy when it hears about another
+ * instance's change. A NOTIFY sent inside a transaction is only delivered on
+ * commit, so listeners never act on a change that rolled back.
+ *
+ * <p>A payment changed elsewhere is also marked as just written, so with read
+ * replicas its next load comes from the primary rather than a replica that
+ * has not replayed the change yet. The listener holds one dedicated
+ * connection to the primary, outside the pool. Notifications sent while it
+ * is reconnecting are lost, so the whole cache is dropped after a
+ * reconnect.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "payment.status-cache.notify.enabled", havingValue = "true")
+public class PaymentStatusChannel {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentStatusChannel.class);
+
+    private static final String ALL = "*";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PaymentStatusCache statusCache;
+    private final ReadYourWritesTracker readYourWrites;
+    private final DataSourceProperties dataSourceProperties;
+    private final String channel;
+    private final int pollMillis;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile boolean running;
+    private Thread listener;
+
+    public PaymentStatusChannel(JdbcTemplate jdbcTemplate,
+            PaymentStatusCache statusCache,
+            ReadYourWritesTracker readYourWrites,
+            DataSourceProperties dataSourceProperties,
+            @Value("${payment.status-cache.notify.channel:payment_status}") String channel,
+            @Value("${payment.status-cache.notify.poll-interval:500ms}") Duration pollInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.statusCache = statusCache;
+        this.readYourWrites = readYourWrites;
+        this.dataSourceProperties = dataSourceProperties;
+        this.channel = channel;
+        this.pollMillis = (int) pollInterval.toMillis();
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        listener = new Thread(this::listen, "payment-status-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        listener.interrupt();
+        listener.join(pollMillis * 2L);
+    }
+
+    /**
+     * Tell other instances that this payment changed.
+     */
+    public void publish(Long paymentId) {
+        send(String.valueOf(paymentId));
+    }
+
+    /**
+     * Tell other instances to drop their cached PENDING payments.
+     */
+    public void publishPendingChanged() {
+        send(ALL);
+    }
+
+    // Private helper methods
+
+    private void send(String target) {
+        try {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", resultSet -> null, channel, nodeId + ":" + target);
+        } catch (RuntimeException e) {
+            // Other instances fall back to the cache TTL
+            logger.warn("Could not publish payment status change {}: {}", target, e.getMessage());
+        }
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (reconnecting) {
+                    statusCache.evictAll();
+                    logger.info("Payment status listener reconnected");
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            apply(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Payment status listener lost its connection: {}", e.getMessage());
+                reconnecting = true;
+                try {
+                    Thread.sleep(Math.max(pollMillis, 1000));
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void apply(String payload) {
+        int separator = payload.indexOf(':');
+        if (separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        String target = payload.substring(separator + 1);
+        if (ALL.equals(target)) {
+            statusCache.evictPending();
+            return;
+        }
+        try {
+            Long paymentId = Long.parseLong(target);
+            readYourWrites.recordWrite(PaymentService.paymentKey(target));
+            statusCache.evict(paymentId);
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring malformed payment status notification {}", payload);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Payment.PaymentStatus;
+import com.ecommerce.repository.PaymentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PENDING payments this instance is authorizing, whether queued by
+ * {@link AsyncPaymentProcessor} or reserved under an idempotency key by
+ * {@link PaymentService}. Each is stored with a claim
+ * that expires after {@code payment.async.pending-timeout}, and the claims of
+ * payments tracked here are renewed until they are released. The stale sweep
+ * (on any instance) only fails payments whose claim ran out, so it never
+ * fails one whose authorization is still queued or running somewhere.
+ */
+@Component
+public class PendingPaymentClaims {
+
+    private final PaymentRepository paymentRepository;
+    private final Duration timeout;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    public PendingPaymentClaims(PaymentRepository paymentRepository,
+            @Value("${payment.async.pending-timeout:10m}") Duration timeout) {
+        this.paymentRepository = paymentRepository;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Expiry for a claim taken or renewed now.
+     */
+    public LocalDateTime claimExpiry() {
+        return LocalDateTime.now().plus(timeout);
+    }
+
+    public void track(Long paymentId) {
+        inFlight.add(paymentId);
+    }
+
+    public void release(Long paymentId) {
+        inFlight.remove(paymentId);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.async.claim-renewal-interval-ms:60000}")
+    @Transactional
+    public void renew() {
+        List<Long> paymentIds = List.copyOf(inFlight);
+        if (!paymentIds.isEmpty()) {
+            paymentRepository.extendClaims(paymentIds, PaymentStatus.PENDING, claimExpiry());
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.ecommerce.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Entry point of the reactive build ({@code mvn package -Preactive}). Serves
+ * the payment read routes (status, validate, history) on WebFlux and R2DBC
+ * against the same database as the servlet build, which keeps handling
+ * payments and refunds. Only this package is scanned, so none of the JPA
+ * services or the gRPC server are started.
+ */
+@SpringBootApplication(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
+public class ReactivePaymentApplication {
+
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(ReactivePaymentApplication.class);
+        // Spring MVC is on the classpath too, for the classes shared with the servlet build
+        application.setWebApplicationType(WebApplicationType.REACTIVE);
+        application.setAdditionalProfiles("reactive");
+        application.run(args);
+    }
+
+    // Tomcat is on the classpath as well and would be picked over Netty
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,109 @@
+package com.ecommerce.reactive;
+
+import com.ecommerce.dto.PaymentResponse;
+import com.ecommerce.dto.PaymentSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The read routes of the servlet build's {@code PaymentController}, with the
+ * same paths, status codes and bodies
+ */
+@RestController
+@RequestMapping("/api/payments")
+@CrossOrigin(origins = "*")
+public class ReactivePaymentController {
+
+    @Autowired
+    private ReactivePaymentService paymentService;
+
+    /**
+     * Validate a payment
+     */
+    @GetMapping("/{paymentId}/validate")
+    public Mono<ResponseEntity<PaymentResponse>> validatePayment(@PathVariable String paymentId) {
+        return paymentService.validatePayment(paymentId)
+                .map(ReactivePaymentController::toLookupResponse)
+                .onErrorResume(e -> Mono.just(internalServerError(e)));
+    }
+
+    /**
+     * Get payment status
+     */
+    @GetMapping("/{paymentId}")
+    public Mono<ResponseEntity<PaymentResponse>> getPaymentStatus(@PathVariable String paymentId) {
+        return paymentService.getPaymentStatus(paymentId)
+                .map(ReactivePaymentController::toLookupResponse)
+                .onErrorResume(e -> Mono.just(internalServerError(e)));
+    }
+
+    /**
+     * Get payment history for a user, one keyset page at a time
+     */
+    @GetMapping("/history/{userId}")
+    public Mono<ResponseEntity<Map<String, Object>>> getPaymentHistory(@PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return paymentService.getPaymentHistory(userId, cursor, size)
+                .map(page -> {
+                    Map<String, Object> body = new HashMap<>();
+                    body.put("success", true);
+                    body.put("message", "Payment history retrieved successfully");
+                    body.put("data", page.getPayments());
+                    body.put("nextCursor", page.getNextCursor());
+                    return ResponseEntity.ok(body);
+                })
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(
+                        ResponseEntity.badRequest().body(failure(e.getMessage()))))
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(failure("Error retrieving payment history: " + e.getMessage()))));
+    }
+
+    /**
+     * Stream a user's full payment history as NDJSON, one payment per line.
+     * Rows are read from the database only as fast as the client takes them.
+     */
+    @GetMapping(value = "/history/{userId}/export", produces = "application/x-ndjson")
+    public Flux<PaymentSummary> exportPaymentHistory(@PathVariable String userId) {
+        return paymentService.exportPaymentHistory(userId);
+    }
+
+    /**
+     * Health check endpoint
+     */
+    @GetMapping("/health")
+    public Mono<Map<String, Object>> healthCheck() {
+        return Mono.fromSupplier(() -> Map.of(
+                "status", "UP",
+                "service", "payment-service",
+                "timestamp", System.currentTimeMillis()));
+    }
+
+    // Private helper methods
+
+    private static ResponseEntity<PaymentResponse> toLookupResponse(PaymentResponse response) {
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        }
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    }
+
+    private static ResponseEntity<PaymentResponse> internalServerError(Throwable e) {
+        PaymentResponse errorResponse = PaymentResponse.failure("Internal server error: " + e.getMessage());
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+    }
+
+    private static Map<String, Object> failure(String message) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("success", false);
+        body.put("message", message);
+        return body;
+    }
+}
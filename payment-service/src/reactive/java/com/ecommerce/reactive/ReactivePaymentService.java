@@ -0,0 +1,165 @@
+package com.ecommerce.reactive;
+
+import com.ecommerce.dto.HistoryCursor;
+import com.ecommerce.dto.PaymentHistoryPage;
+import com.ecommerce.dto.PaymentResponse;
+import com.ecommerce.dto.PaymentSummary;
+import com.ecommerce.model.Payment;
+import com.ecommerce.model.Payment.PaymentStatus;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Payment lookups over R2DBC, with the same results and messages as the
+ * servlet build's {@code PaymentService}. Rows are read straight from the
+ * payments table; there is no status cache, so every lookup sees the latest
+ * committed state.
+ */
+@Service
+public class ReactivePaymentService {
+
+    private static final String PAYMENT_COLUMNS = "id, user_id, amount, refunded_amount, currency, status, "
+            + "payment_method, transaction_id, order_id, created_at";
+
+    private static final String SUMMARY_COLUMNS = "id, transaction_id, status, amount, currency, payment_method, "
+            + "order_id, created_at";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Value("${payment.history.default-page-size:20}")
+    private int defaultHistoryPageSize;
+
+    @Value("${payment.history.max-page-size:100}")
+    private int maxHistoryPageSize;
+
+    @Value("${payment.history.export-batch-size:500}")
+    private int exportBatchSize;
+
+    /**
+     * Validate a payment
+     */
+    public Mono<PaymentResponse> validatePayment(String paymentId) {
+        return Mono.defer(() -> findPayment(Long.parseLong(paymentId)))
+                .map(payment -> {
+                    boolean isValid = payment.getStatus() == PaymentStatus.SUCCESS;
+                    String message = isValid ? "Payment is valid" : "Payment is not valid";
+                    return new PaymentResponse(isValid, message, payment);
+                })
+                .defaultIfEmpty(PaymentResponse.failure("Payment not found"))
+                .onErrorResume(NumberFormatException.class,
+                        e -> Mono.just(PaymentResponse.failure("Invalid payment ID format")))
+                .onErrorResume(e -> Mono.just(PaymentResponse.failure("Validation error: " + e.getMessage())));
+    }
+
+    /**
+     * Get payment status by ID
+     */
+    public Mono<PaymentResponse> getPaymentStatus(String paymentId) {
+        return Mono.defer(() -> findPayment(Long.parseLong(paymentId)))
+                .map(payment -> PaymentResponse.success("Payment found", payment))
+                .defaultIfEmpty(PaymentResponse.failure("Payment not found"))
+                .onErrorResume(NumberFormatException.class,
+                        e -> Mono.just(PaymentResponse.failure("Invalid payment ID format")))
+                .onErrorResume(e -> Mono.just(PaymentResponse.failure("Error retrieving payment: " + e.getMessage())));
+    }
+
+    /**
+     * Get one page of payment history for a user, newest first. Cursors are
+     * interchangeable with the servlet build's.
+     */
+    public Mono<PaymentHistoryPage> getPaymentHistory(String userId, String cursor, Integer size) {
+        int pageSize = size == null ? defaultHistoryPageSize : Math.max(1, Math.min(size, maxHistoryPageSize));
+        return Mono.defer(() -> fetchHistoryPage(userId,
+                cursor == null || cursor.isBlank() ? null : HistoryCursor.decode(cursor), pageSize));
+    }
+
+    /**
+     * Stream a user's whole payment history, newest first. Pages are queried
+     * as the subscriber asks for rows, at most one page ahead of it, so a
+     * slow client holds back the reads instead of filling memory, and no
+     * connection is held between pages.
+     */
+    public Flux<PaymentSummary> exportPaymentHistory(String userId) {
+        return fetchHistoryPage(userId, null, exportBatchSize)
+                .expand(page -> page.getNextCursor() == null
+                        ? Mono.empty()
+                        : fetchHistoryPage(userId, HistoryCursor.decode(page.getNextCursor()), exportBatchSize))
+                .concatMapIterable(PaymentHistoryPage::getPayments, 1);
+    }
+
+    // Private helper methods
+
+    private Mono<Payment> findPayment(Long id) {
+        return databaseClient.sql("SELECT " + PAYMENT_COLUMNS + " FROM payments WHERE id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> toPayment(row))
+                .one();
+    }
+
+    private Mono<PaymentHistoryPage> fetchHistoryPage(String userId, HistoryCursor position, int pageSize) {
+        DatabaseClient.GenericExecuteSpec query;
+        if (position == null) {
+            query = databaseClient.sql("SELECT " + SUMMARY_COLUMNS + " FROM payments WHERE user_id = :userId "
+                    + "ORDER BY created_at DESC, id DESC LIMIT :limit");
+        } else {
+            query = databaseClient.sql("SELECT " + SUMMARY_COLUMNS + " FROM payments WHERE user_id = :userId "
+                            + "AND (created_at < :createdAt OR (created_at = :createdAt AND id < :id)) "
+                            + "ORDER BY created_at DESC, id DESC LIMIT :limit")
+                    .bind("createdAt", position.createdAt())
+                    .bind("id", position.id());
+        }
+
+        // Fetch one extra row to learn whether another page exists
+        return query.bind("userId", userId)
+                .bind("limit", pageSize + 1)
+                .map((row, metadata) -> toSummary(row))
+                .all()
+                .collectList()
+                .map(rows -> {
+                    if (rows.size() <= pageSize) {
+                        return new PaymentHistoryPage(rows, null);
+                    }
+                    List<PaymentSummary> page = rows.subList(0, pageSize);
+                    PaymentSummary last = page.get(pageSize - 1);
+                    return new PaymentHistoryPage(page,
+                            new HistoryCursor(last.getCreatedAt(), last.getId()).encode());
+                });
+    }
+
+    private static Payment toPayment(Row row) {
+        Payment payment = new Payment();
+        payment.setId(row.get("id", Long.class));
+        payment.setUserId(row.get("user_id", String.class));
+        payment.setAmount(row.get("amount", BigDecimal.class));
+        payment.setRefundedAmount(row.get("refunded_amount", BigDecimal.class));
+        payment.setCurrency(row.get("currency", String.class));
+        payment.setStatus(PaymentStatus.valueOf(row.get("status", String.class)));
+        payment.setPaymentMethod(row.get("payment_method", String.class));
+        payment.setTransactionId(row.get("transaction_id", String.class));
+        payment.setOrderId(row.get("order_id", String.class));
+        payment.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        return payment;
+    }
+
+    private static PaymentSummary toSummary(Row row) {
+        return new PaymentSummary(
+                row.get("id", Long.class),
+                row.get("transaction_id", String.class),
+                PaymentStatus.valueOf(row.get("status", String.class)),
+                row.get("amount", BigDecimal.class),
+                row.get("currency", String.class),
+                row.get("payment_method", String.class),
+                row.get("order_id", String.class),
+                row.get("created_at", LocalDateTime.class));
+    }
+}
@@ -0,0 +1,44 @@
+#!/bin/bash
+
+# Insert throughput benchmark for the payments table, through
+# PaymentRepository.saveAll with the payment-service's own Hibernate
+# settings (pooled payments_seq ids, JDBC batching, rewritten inserts).
+# Runs PaymentInsertBenchmark from the JMH module with JDBC batching on
+# (batch_size=50, as configured) and off (batch_size=1).
+#
+# Without a JDBC URL the benchmark starts an embedded Postgres, which refuses
+# to run as root. With one, point it at a scratch database: the payments
+# table there is created if needed and written to.
+#
+# Usage: ./scripts/bench-payment-inserts.sh [jdbc-url [username password]]
+
+echo "⏱️  Benchmarking payment inserts..."
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+BLUE='\033[0;34m'
+NC='\033[0m' # No Color
+
+ROOT_DIR=$(cd "$(dirname "$0")/.." && pwd)
+BENCH_JAR="$ROOT_DIR/benchmarks/target/benchmarks.jar"
+
+if [ ! -f "$BENCH_JAR" ]; then
+    echo -e "${BLUE}▶ Building the benchmarks jar${NC}"
+    (cd "$ROOT_DIR/user-service" && mvn -B -q install -DskipTests) || exit 1
+    (cd "$ROOT_DIR/payment-service" && mvn -B -q install -DskipTests) || exit 1
+    (cd "$ROOT_DIR/benchmarks" && mvn -B -q package) || exit 1
+fi
+
+JMH_ARGS=()
+if [ -n "$1" ]; then
+    JMH_ARGS=(-jvmArgsAppend "-Dpayments.jdbc-url=$1 -Dpayments.username=${2:-payment_service} -Dpayments.password=${3:-payment_password}")
+    echo -e "${BLUE}▶ Database: $1${NC}"
+else
+    echo -e "${BLUE}▶ Database: embedded Postgres${NC}"
+fi
+
+java -jar "$BENCH_JAR" PaymentInsertBenchmark "${JMH_ARGS[@]}" \
+    | grep -A3 "^Benchmark " || { echo -e "${RED}Benchmark failed${NC}"; exit 1; }
+
+echo -e "${GREEN}✅ Scores are microseconds per inserted payment${NC}"
@@ -0,0 +1,66 @@
+#!/bin/bash
+
+# Status polling (GET /api/payments/{id}, /validate and a history page) on
+# the servlet build of payment-service vs the reactive build
+# (mvn package -Preactive). Both runs use the load-tests harness and the
+# same seeded payments; the reactive run starts the reactive jar on port
+# 8084 next to the servlet build, which still creates the payments.
+#
+# The servlet build answers repeat status lookups from its status cache;
+# the reactive build reads the database every time.
+#
+# Embedded Postgres refuses to run as root; use MODE=docker (with the compose
+# Postgres containers up) when running as root.
+#
+# Usage: ./scripts/bench-reactive.sh [concurrency] [seconds]
+
+echo "⚛️  Benchmarking servlet vs reactive payment lookups..."
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+BLUE='\033[0;34m'
+NC='\033[0m' # No Color
+
+CONCURRENCY=${1:-256}
+DURATION=${2:-60}
+MODE=${MODE:-embedded}
+
+ROOT_DIR=$(cd "$(dirname "$0")/.." && pwd)
+RESULTS_DIR="$ROOT_DIR/load-tests/results/$(date +%Y%m%d-%H%M%S)-reactive-c$CONCURRENCY"
+REACTIVE_JAR="$ROOT_DIR/payment-service/target/reactive/payment-service-1.0.0.jar"
+
+if [ ! -f "$REACTIVE_JAR" ]; then
+    echo -e "${BLUE}▶ Building payment-service -Preactive${NC}"
+    (cd "$ROOT_DIR/payment-service" && mvn -B -q package -DskipTests -Preactive) || exit 1
+fi
+
+# One socket per connection on the client and on the server
+ulimit -n 65536 2>/dev/null || echo "⚠️  Could not raise the open file limit; high concurrency may fail"
+
+run() {
+    local label=$1
+    shift
+    echo -e "${BLUE}▶ $label, $CONCURRENCY workers, ${DURATION}s${NC}"
+    "$ROOT_DIR/scripts/load-test.sh" "$MODE" "$CONCURRENCY" "$DURATION" -- \
+        --scenario=status \
+        --warmup=20 \
+        --output="$RESULTS_DIR/$label" \
+        "$@" \
+        > "$RESULTS_DIR/$label.out" 2>&1 || { echo -e "${RED}$label run failed, see $RESULTS_DIR/$label.out${NC}"; exit 1; }
+}
+
+mkdir -p "$RESULTS_DIR"
+run servlet
+run reactive --status-service-jar="$REACTIVE_JAR" --status-url=http://localhost:8084
+
+echo ""
+head -2 "$RESULTS_DIR/servlet/summary.txt" | tail -1
+for endpoint in status validate history; do
+    for label in servlet reactive; do
+        grep "^$endpoint " "$RESULTS_DIR/$label/summary.txt" \
+            | awk -v name="$endpoint/${label:0:1}" '{ print sprintf("%-10s", name) substr($0, 11) }'
+    done
+done
+echo "(s = servlet, r = reactive)"
+echo -e "${GREEN}✅ Histograms and service logs in $RESULTS_DIR${NC}"
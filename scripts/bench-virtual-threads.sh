@@ -0,0 +1,61 @@
+#!/bin/bash
+
+# Throughput of POST /api/payments/process at a high number of concurrent
+# connections, platform threads vs the virtual-threads profile. Both runs
+# use the same Java 21 JDK and the same load-tests harness; only
+# SPRING_PROFILES_ACTIVE differs. The gateway stand-in gets a simulated
+# latency so authorization waits like a remote call instead of being free.
+#
+# Embedded Postgres refuses to run as root; use MODE=docker (with the compose
+# Postgres containers up) when running as root.
+#
+# Usage: JAVA21_HOME=/path/to/jdk-21 ./scripts/bench-virtual-threads.sh [connections] [seconds]
+
+echo "🧵 Benchmarking platform vs virtual threads..."
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+BLUE='\033[0;34m'
+NC='\033[0m' # No Color
+
+CONNECTIONS=${1:-5000}
+DURATION=${2:-60}
+MODE=${MODE:-embedded}
+GATEWAY_LATENCY=${GATEWAY_LATENCY:-50ms}
+
+if [ -z "$JAVA21_HOME" ] || ! "$JAVA21_HOME/bin/java" -version 2>&1 | grep -qE 'version "(2[1-9]|[3-9][0-9])'; then
+    echo -e "${RED}Set JAVA21_HOME to a JDK 21 or later${NC}"
+    exit 1
+fi
+
+ROOT_DIR=$(cd "$(dirname "$0")/.." && pwd)
+RESULTS_DIR="$ROOT_DIR/load-tests/results/$(date +%Y%m%d-%H%M%S)-threads-c$CONNECTIONS"
+
+# One socket per connection on the client and on the server
+ulimit -n 65536 2>/dev/null || echo "⚠️  Could not raise the open file limit; high connection counts may fail"
+# One load generator thread per connection
+export LOAD_TEST_JAVA_OPTS="${LOAD_TEST_JAVA_OPTS:--Xss256k}"
+
+run() {
+    local label=$1 profiles=$2
+    echo -e "${BLUE}▶ $label threads, $CONNECTIONS connections, ${DURATION}s${NC}"
+    "$ROOT_DIR/scripts/load-test.sh" "$MODE" "$CONNECTIONS" "$DURATION" -- \
+        --scenario=process \
+        --warmup=20 \
+        --output="$RESULTS_DIR/$label" \
+        --service-java-home="$JAVA21_HOME" \
+        --service-env="SPRING_PROFILES_ACTIVE=$profiles,PAYMENT_GATEWAY_LATENCY=$GATEWAY_LATENCY" \
+        > "$RESULTS_DIR/$label.out" 2>&1 || { echo -e "${RED}$label run failed, see $RESULTS_DIR/$label.out${NC}"; exit 1; }
+}
+
+mkdir -p "$RESULTS_DIR"
+run platform default
+run virtual virtual-threads
+
+echo ""
+head -2 "$RESULTS_DIR/platform/summary.txt" | tail -1 | sed 's/^endpoint/mode    /'
+for label in platform virtual; do
+    grep '^process' "$RESULTS_DIR/$label/summary.txt" | sed "s/^process /$(printf '%-8s' $label)/"
+done
+echo -e "${GREEN}✅ Histograms and service logs in $RESULTS_DIR${NC}"
@@ -0,0 +1,44 @@
+#!/bin/bash
+
+# Compares two JMH JSON result files, e.g. the checked-in baseline and a run
+# made after a change: time per op and bytes allocated per op (from -prof gc)
+# for every benchmark, with the relative change. Scores carry JMH's 99.9%
+# error; a change smaller than the two errors combined is within noise and
+# shown as "~" instead of a percentage.
+#
+# Usage: ./scripts/compare-benchmarks.sh [baseline.json] current.json
+
+if [ $# -eq 1 ]; then
+    BASELINE="$(dirname "$0")/../benchmarks/results/baseline.json"
+    CURRENT=$1
+else
+    BASELINE=${1:?Usage: $0 [baseline.json] current.json}
+    CURRENT=${2:?Usage: $0 [baseline.json] current.json}
+fi
+
+# One line per benchmark and parameter set: key, score, error, unit, B/op.
+# JMH writes a "NaN" error for single-iteration runs; count that as no error.
+summarize() {
+    jq -r '.[] | [
+        (.benchmark | sub("^com\\.ecommerce\\."; "")) + ((.params // {}) | to_entries | map("[" + .key + "=" + .value + "]") | join("")),
+        .primaryMetric.score,
+        (.primaryMetric.scoreError | if type == "number" then . else 0 end),
+        .primaryMetric.scoreUnit,
+        (.secondaryMetrics["gc.alloc.rate.norm"].score // "")
+    ] | @tsv' "$1" | sort
+}
+
+printf "%-64s %24s %24s %8s %10s %10s %8s\n" "Benchmark" "Baseline" "Current" "Δ" "Base B/op" "Cur B/op" "Δ"
+join -t $'\t' <(summarize "$BASELINE") <(summarize "$CURRENT") |
+    awk -F'\t' '
+        function delta(before, after) {
+            return before > 0 ? sprintf("%+.1f%%", (after - before) * 100 / before) : "-"
+        }
+        function abs(x) {
+            return x < 0 ? -x : x
+        }
+        {
+            change = abs($6 - $2) > $3 + $7 ? delta($2, $6) : "~"
+            printf "%-64s %9.1f ± %-7.1f %-4s %9.1f ± %-7.1f %-4s %8s %10.0f %10.0f %8s\n",
+                $1, $2, $3, $4, $6, $7, $8, change, $5, $9, delta($5, $9)
+        }'
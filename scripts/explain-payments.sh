@@ -0,0 +1,170 @@
+#!/bin/bash
+
+# Query plan check for the payments table.
+# Seeds scratch copies of the payments and payment_refunds tables (same columns
+# and indexes) in the payment database, runs EXPLAIN for every PaymentRepository
+# and PaymentRefundRepository query, including the updates and deletes, and
+# fails if any plan contains a sequential scan.
+#
+# The payment-service must have started once against the database so that the
+# tables and their indexes exist.
+#
+# Usage: ./scripts/explain-payments.sh [rows]
+
+echo "🔎 Checking payment query plans..."
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+BLUE='\033[0;34m'
+NC='\033[0m' # No Color
+
+ROWS=${1:-200000}
+PGHOST=${PGHOST:-localhost}
+PGPORT=${PGPORT:-5433}
+PGDATABASE=${PGDATABASE:-payments_db}
+PGUSER=${PGUSER:-payment_service}
+export PGPASSWORD=${PGPASSWORD:-payment_password}
+export PGHOST PGPORT PGDATABASE PGUSER
+
+# Use the container's psql when none is installed locally
+if command -v psql >/dev/null 2>&1; then
+    PSQL="psql -X -q -v ON_ERROR_STOP=1"
+else
+    PSQL="docker exec -i -e PGPASSWORD=$PGPASSWORD postgres-payment psql -X -q -v ON_ERROR_STOP=1 -h localhost -p 5432 -U $PGUSER -d $PGDATABASE"
+fi
+
+seed() {
+    echo -e "${BLUE}🌱 Seeding $ROWS rows into explain_check.payments...${NC}"
+    $PSQL <<SQL
+DROP SCHEMA IF EXISTS explain_check CASCADE;
+CREATE SCHEMA explain_check;
+CREATE TABLE explain_check.payments (LIKE public.payments INCLUDING ALL);
+CREATE TABLE explain_check.payment_refunds (LIKE public.payment_refunds INCLUDING ALL);
+INSERT INTO explain_check.payments
+    (id, user_id, amount, currency, status, payment_method, transaction_id, order_id,
+     idempotency_key, payment_details, failure_reason, claimed_until, created_at, updated_at)
+SELECT g,
+       'user_' || (g % 5000),
+       (g % 900) + 0.99,
+       'USD',
+       CASE WHEN g % 1000 = 0 THEN 'PENDING'
+            WHEN g % 100 = 0 THEN 'FAILED'
+            WHEN g % 250 = 0 THEN 'REFUNDED'
+            ELSE 'SUCCESS' END,
+       'CreditCard',
+       'TXN_' || lpad(to_hex(g), 16, '0'),
+       'ORDER_' || g,
+       CASE WHEN g % 100 = 0 AND g % 1000 <> 0 THEN NULL
+            ELSE 'user_' || (g % 5000) || ':ORDER_' || g END,
+       'Card: ****4242, Holder: Load Test',
+       NULL,
+       CASE WHEN g % 1000 = 0 THEN now() + interval '10 minutes' END,
+       now() - (g || ' seconds')::interval,
+       now() - (g || ' seconds')::interval
+FROM generate_series(1, $ROWS) AS g;
+INSERT INTO explain_check.payment_refunds (id, payment_id, amount, reason, created_at)
+SELECT g, g, (g % 900) + 0.99, 'Load test', now() - (g || ' seconds')::interval
+FROM generate_series(250, $ROWS, 250) AS g;
+VACUUM ANALYZE explain_check.payments;
+VACUUM ANALYZE explain_check.payment_refunds;
+SQL
+}
+
+FAILED=0
+
+check() {
+    local name=$1
+    local query=$2
+
+    if ! plan=$($PSQL -t -A -c "SET search_path = explain_check; EXPLAIN $query" 2>&1); then
+        echo -e "${RED}❌ $name could not be explained${NC}"
+        echo "$plan" | sed 's/^/     /'
+        FAILED=1
+    elif echo "$plan" | grep -q "Seq Scan"; then
+        echo -e "${RED}❌ $name uses a sequential scan${NC}"
+        echo "$plan" | sed 's/^/     /'
+        FAILED=1
+    else
+        echo -e "${GREEN}✅ $name${NC}"
+    fi
+}
+
+cleanup() {
+    $PSQL -c "DROP SCHEMA IF EXISTS explain_check CASCADE" >/dev/null
+}
+
+seed || exit 1
+trap cleanup EXIT
+
+# One entry per PaymentRepository and PaymentRefundRepository query
+check "findByTransactionId" \
+    "SELECT * FROM payments WHERE transaction_id = 'TXN_0000000000000abc'"
+check "existsByTransactionId" \
+    "SELECT id FROM payments WHERE transaction_id = 'TXN_0000000000000abc' LIMIT 1"
+check "findByUserIdOrderByCreatedAtDesc" \
+    "SELECT * FROM payments WHERE user_id = 'user_42' ORDER BY created_at DESC"
+check "findRecentPaymentsByUserId" \
+    "SELECT * FROM payments WHERE user_id = 'user_42' ORDER BY created_at DESC"
+check "findHistoryFirstPage" \
+    "SELECT id, transaction_id, status, amount, currency, payment_method, order_id, created_at
+     FROM payments WHERE user_id = 'user_42' ORDER BY created_at DESC, id DESC LIMIT 21"
+check "findHistoryPageAfter" \
+    "SELECT id, transaction_id, status, amount, currency, payment_method, order_id, created_at
+     FROM payments WHERE user_id = 'user_42'
+       AND (created_at < now() - interval '1 day' OR (created_at = now() - interval '1 day' AND id < 1000))
+     ORDER BY created_at DESC, id DESC LIMIT 21"
+check "findByOrderId" \
+    "SELECT * FROM payments WHERE order_id = 'ORDER_4242'"
+check "findByStatus" \
+    "SELECT * FROM payments WHERE status = 'PENDING'"
+check "findByUserIdAndStatus" \
+    "SELECT * FROM payments WHERE user_id = 'user_42' AND status = 'FAILED'"
+check "countByStatus" \
+    "SELECT count(id) FROM payments WHERE status = 'FAILED'"
+check "findByIdempotencyKey" \
+    "SELECT * FROM payments WHERE idempotency_key = 'user_42:ORDER_5042'"
+check "findByIdempotencyKeyIn" \
+    "SELECT * FROM payments WHERE idempotency_key IN ('user_42:ORDER_5042', 'user_43:ORDER_5043')"
+check "findAllById" \
+    "SELECT * FROM payments WHERE id IN (4242, 4243, 4244)"
+check "updateStatusIf" \
+    "UPDATE payments SET status = 'SUCCESS', failure_reason = NULL, updated_at = now(), version = version + 1
+     WHERE id = 4000 AND status = 'PENDING'"
+check "failIf" \
+    "UPDATE payments SET status = 'FAILED', failure_reason = 'Payment processing failed', idempotency_key = NULL,
+            updated_at = now(), version = version + 1
+     WHERE id = 4000 AND status = 'PENDING'"
+check "updateStatusAllIf" \
+    "UPDATE payments SET status = 'SUCCESS', failure_reason = NULL, updated_at = now(), version = version + 1
+     WHERE id IN (3000, 4000) AND status = 'PENDING'"
+check "failAllIf" \
+    "UPDATE payments SET status = 'FAILED', failure_reason = 'Payment processing failed', idempotency_key = NULL,
+            updated_at = now(), version = version + 1
+     WHERE id IN (3000, 4000) AND status = 'PENDING'"
+check "releaseIdempotencyKeyIf" \
+    "UPDATE payments SET idempotency_key = NULL, version = version + 1 WHERE id = 4200 AND status = 'FAILED'"
+check "applyRefund" \
+    "UPDATE payments SET refunded_amount = refunded_amount + 1.00,
+            status = CASE WHEN refunded_amount + 1.00 >= amount THEN 'REFUNDED' ELSE status END,
+            updated_at = now(), version = version + 1
+     WHERE id = 4242 AND status = 'SUCCESS' AND refunded_amount + 1.00 <= amount"
+check "updateStatusUnclaimed" \
+    "UPDATE payments SET status = 'FAILED', failure_reason = 'Payment processing was interrupted', idempotency_key = NULL,
+            updated_at = now(), version = version + 1
+     WHERE status = 'PENDING' AND (claimed_until < now()
+        OR (claimed_until IS NULL AND created_at < now() - interval '10 minutes'))"
+check "extendClaims" \
+    "UPDATE payments SET claimed_until = now() + interval '10 minutes', version = version + 1
+     WHERE id IN (3000, 4000) AND status = 'PENDING'"
+check "deleteIf" \
+    "DELETE FROM payments WHERE id = 4000 AND status = 'PENDING'"
+check "findByPaymentIdOrderByCreatedAtAsc" \
+    "SELECT * FROM payment_refunds WHERE payment_id = 4250 ORDER BY created_at ASC"
+
+echo ""
+if [ $FAILED -ne 0 ]; then
+    echo -e "${RED}Sequential scans found; add or fix an index before merging.${NC}"
+    exit 1
+fi
+echo -e "${GREEN}All payment queries use indexes.${NC}"
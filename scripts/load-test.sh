@@ -0,0 +1,74 @@
+#!/bin/bash
+
+# Load test for the purchase workflow:
+#   register -> login -> profile -> process payment -> history -> refund
+# at a fixed concurrency against user-service and payment-service. Reports
+# p50/p99/p99.9 latency, throughput and error rate per endpoint, and writes
+# HdrHistogram interval logs (.hlog) and percentile distributions (.hgrm).
+#
+# Modes:
+#   embedded  start embedded Postgres, the inventory stub and both services
+#   docker    like embedded, but use the docker compose Postgres containers
+#             (docker compose up -d postgres-user postgres-payment)
+#   running   services are already up on their usual ports
+#
+# Set GATEWAY_URL (e.g. http://localhost:8080) to add the gateway's
+# /api/purchase step; the inventory stub answers its gRPC calls on 9092.
+# Embedded Postgres refuses to run as root. LOAD_TEST_JAVA_OPTS is passed to
+# the load generator JVM (e.g. -Xss256k for thousands of workers). Pass
+# "-- --rate=<passes/s>" to schedule passes at a fixed rate (open loop)
+# instead of back to back.
+#
+# Usage: ./scripts/load-test.sh [mode] [concurrency] [seconds] [-- extra options]
+
+echo "📈 Load testing the purchase workflow..."
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+BLUE='\033[0;34m'
+NC='\033[0m' # No Color
+
+MODE=${1:-embedded}
+CONCURRENCY=${2:-32}
+DURATION=${3:-60}
+shift $(( $# < 3 ? $# : 3 ))
+[ "$1" == "--" ] && shift
+
+ROOT_DIR=$(cd "$(dirname "$0")/.." && pwd)
+OUTPUT_DIR="$ROOT_DIR/load-tests/results/$(date +%Y%m%d-%H%M%S)-$MODE-c$CONCURRENCY"
+USER_JAR="$ROOT_DIR/user-service/target/user-service-1.0.0.jar"
+PAYMENT_JAR="$ROOT_DIR/payment-service/target/payment-service-1.0.0.jar"
+LOAD_TEST_JAR="$ROOT_DIR/load-tests/target/load-tests.jar"
+
+build_if_missing() {
+    local jar=$1 module=$2
+    if [ ! -f "$jar" ]; then
+        echo -e "${BLUE}▶ Building $module${NC}"
+        (cd "$ROOT_DIR/$module" && mvn -B -q package -DskipTests) || exit 1
+    fi
+}
+
+if [ "$MODE" != "running" ]; then
+    build_if_missing "$USER_JAR" user-service
+    build_if_missing "$PAYMENT_JAR" payment-service
+fi
+build_if_missing "$LOAD_TEST_JAR" load-tests
+
+if [ "$MODE" == "embedded" ] && [ "$(id -u)" == "0" ]; then
+    echo -e "${RED}Embedded Postgres cannot run as root; use the docker mode or another user${NC}"
+    exit 1
+fi
+
+echo -e "${BLUE}▶ $MODE, $CONCURRENCY workers, ${DURATION}s${NC}"
+java $LOAD_TEST_JAVA_OPTS -jar "$LOAD_TEST_JAR" \
+    --environment="$MODE" \
+    --concurrency="$CONCURRENCY" \
+    --duration="$DURATION" \
+    --output="$OUTPUT_DIR" \
+    --user-service-jar="$USER_JAR" \
+    --payment-service-jar="$PAYMENT_JAR" \
+    ${GATEWAY_URL:+--gateway-url="$GATEWAY_URL"} \
+    "$@" || exit 1
+
+echo -e "${GREEN}✅ Results in $OUTPUT_DIR${NC}"
@@ -0,0 +1,11 @@
+#!/bin/sh
+
+# Runs once on a fresh primary volume (docker-entrypoint-initdb.d): creates
+# the streaming replication role and lets it connect from the compose network.
+set -e
+
+psql -v ON_ERROR_STOP=1 --username "$POSTGRES_USER" --dbname "$POSTGRES_DB" <<SQL
+CREATE ROLE replicator WITH REPLICATION LOGIN PASSWORD 'replicator_password';
+SQL
+
+echo "host replication replicator all scram-sha-256" >> "$PGDATA/pg_hba.conf"
@@ -0,0 +1,19 @@
+#!/bin/sh
+
+# Clones the primary with pg_basebackup on first start, then runs the
+# container as a hot standby that streams WAL from it.
+set -e
+
+PRIMARY_HOST=${PRIMARY_HOST:?PRIMARY_HOST is required}
+export PGPASSWORD=${REPLICATION_PASSWORD:-replicator_password}
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+    until pg_basebackup -h "$PRIMARY_HOST" -U replicator -D "$PGDATA" -R -X stream; do
+        echo "Waiting for $PRIMARY_HOST to accept replication connections..."
+        rm -rf "${PGDATA:?}"/*
+        sleep 2
+    done
+    chmod 0700 "$PGDATA"
+fi
+
+exec postgres -c hot_standby=on
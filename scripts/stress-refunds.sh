@@ -0,0 +1,91 @@
+#!/bin/bash
+
+# Concurrency stress test for refunds. Fires many simultaneous refunds at the
+# same payment and checks that none were applied twice:
+#   1. N concurrent full refunds of one payment -> exactly one succeeds
+#   2. N concurrent partial refunds of one payment -> only as many succeed as
+#      fit into the amount, and the refund rows add up to refundedAmount
+#
+# Talks to payment-service directly. Needs curl and jq.
+#
+# Usage: ./scripts/stress-refunds.sh [requests]
+
+echo "🔁 Stress testing concurrent refunds..."
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+BLUE='\033[0;34m'
+NC='\033[0m' # No Color
+
+REQUESTS=${1:-50}
+PAYMENT_URL=${PAYMENT_URL:-http://localhost:8083/api/payments}
+AMOUNT="100.00"
+PARTIAL="7.00"
+FAILURES=0
+
+# Creates a successful payment and prints its ID. The gateway stand-in
+# declines a few payments at random, so retry until one goes through.
+create_payment() {
+    for attempt in 1 2 3 4 5; do
+        local id
+        id=$(curl -s -X POST "$PAYMENT_URL/process" \
+            -H "Content-Type: application/json" \
+            -d '{
+                "userId": "refund-stress",
+                "amount": '"$AMOUNT"',
+                "currency": "USD",
+                "paymentMethod": "CreditCard",
+                "orderId": "refund-stress-'"$(date +%s%N)"'"
+            }' | jq -r 'select(.success) | .paymentId')
+        if [ -n "$id" ]; then
+            echo "$id"
+            return 0
+        fi
+    done
+    return 1
+}
+
+# Sends $REQUESTS refunds at once and prints how many succeeded
+concurrent_refunds() {
+    local payment_id=$1 body=$2
+    seq "$REQUESTS" | xargs -P "$REQUESTS" -I{} \
+        curl -s -o /dev/null -w "%{http_code}\n" -X POST "$PAYMENT_URL/$payment_id/refund" \
+        -H "Content-Type: application/json" -d "$body" \
+        | grep -c '^200$'
+}
+
+check() {
+    local label=$1 expected=$2 actual=$3
+    if [ "$expected" == "$actual" ]; then
+        echo -e "${GREEN}✅ $label: $actual${NC}"
+    else
+        echo -e "${RED}❌ $label: expected $expected, got $actual${NC}"
+        FAILURES=$((FAILURES + 1))
+    fi
+}
+
+echo -e "${BLUE}▶ $REQUESTS concurrent full refunds${NC}"
+PAYMENT_ID=$(create_payment) || { echo -e "${RED}Could not create a payment${NC}"; exit 1; }
+SUCCEEDED=$(concurrent_refunds "$PAYMENT_ID" '{}')
+check "Full refunds accepted" 1 "$SUCCEEDED"
+check "Status" REFUNDED "$(curl -s "$PAYMENT_URL/$PAYMENT_ID" | jq -r '.status')"
+
+echo -e "${BLUE}▶ $REQUESTS concurrent partial refunds of $PARTIAL${NC}"
+PAYMENT_ID=$(create_payment) || { echo -e "${RED}Could not create a payment${NC}"; exit 1; }
+SUCCEEDED=$(concurrent_refunds "$PAYMENT_ID" '{"amount": '"$PARTIAL"', "reason": "stress"}')
+FIT=$(awk "BEGIN { n = int($AMOUNT / $PARTIAL); print (n < $REQUESTS ? n : $REQUESTS) }")
+check "Partial refunds accepted" "$FIT" "$SUCCEEDED"
+REFUNDED=$(curl -s "$PAYMENT_URL/$PAYMENT_ID" | jq -r '.refundedAmount')
+check "refundedAmount" "$(awk "BEGIN { printf \"%.2f\", $FIT * $PARTIAL }")" \
+    "$(awk "BEGIN { printf \"%.2f\", $REFUNDED }")"
+ROWS_TOTAL=$(curl -s "$PAYMENT_URL/$PAYMENT_ID/refunds" | jq '[.data[].amount] | add // 0')
+check "Sum of refund rows" "$(awk "BEGIN { printf \"%.2f\", $REFUNDED }")" \
+    "$(awk "BEGIN { printf \"%.2f\", $ROWS_TOTAL }")"
+
+echo ""
+if [ "$FAILURES" -gt 0 ]; then
+    echo -e "${RED}$FAILURES check(s) failed${NC}"
+    exit 1
+fi
+echo -e "${GREEN}No double refunds under $REQUESTS concurrent requests${NC}"
@@ -0,0 +1,86 @@
+package com.ecommerce.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Decides the BCrypt strength for this deployment. With calibration enabled
+ * the strength is measured at startup: the highest cost whose hash time stays
+ * within the configured target on the current hardware, never below the
+ * configured floor. Otherwise the fixed {@code security.password.bcrypt-strength}
+ * is used.
+ */
+@Component
+public class BCryptWorkFactor {
+
+    private static final Logger logger = LoggerFactory.getLogger(BCryptWorkFactor.class);
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abyx]?\\$(\\d{2})\\$");
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    private final int strength;
+
+    public BCryptWorkFactor(@Value("${security.password.bcrypt-strength:10}") int configuredStrength,
+            @Value("${security.password.calibration.enabled:false}") boolean calibrate,
+            @Value("${security.password.calibration.target-ms:250}") long targetMillis,
+            @Value("${security.password.calibration.min-strength:10}") int minStrength,
+            @Value("${security.password.calibration.max-strength:14}") int maxStrength) {
+        this.strength = calibrate ? calibrate(targetMillis, minStrength, maxStrength) : configuredStrength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * Cost factor of a stored BCrypt hash (with or without a {@code {bcrypt}}
+     * prefix), or -1 if the hash is not BCrypt.
+     */
+    public static int costOf(String encodedPassword) {
+        if (encodedPassword == null) {
+            return -1;
+        }
+        String hash = encodedPassword.startsWith("{bcrypt}")
+                ? encodedPassword.substring("{bcrypt}".length())
+                : encodedPassword;
+        Matcher matcher = BCRYPT_COST.matcher(hash);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    private static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+        int chosen = minStrength;
+        for (int candidate = minStrength; candidate <= maxStrength; candidate++) {
+            long elapsed = measure(candidate);
+            logger.info("BCrypt strength {} takes {} ms", candidate, elapsed);
+            if (elapsed > targetMillis) {
+                if (candidate == minStrength) {
+                    logger.warn("BCrypt strength {} exceeds the {} ms target; using it as the floor",
+                            minStrength, targetMillis);
+                }
+                break;
+            }
+            chosen = candidate;
+        }
+        logger.info("Calibrated BCrypt strength {} for a {} ms target", chosen, targetMillis);
+        return chosen;
+    }
+
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        // First hash warms up the JIT; keep the faster of the next two
+        encoder.encode(CALIBRATION_PASSWORD);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            encoder.encode(CALIBRATION_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1_000_000;
+    }
+}
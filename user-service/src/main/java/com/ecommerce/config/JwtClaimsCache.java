@@ -0,0 +1,108 @@
+package com.ecommerce.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Size-bounded LRU cache of already verified token claims. Entries are keyed
+ * by a SHA-256 digest of the token from {@link #key(String)} (raw tokens are
+ * never held as keys) and expire exactly at the token's {@code exp} claim.
+ * The cache cannot revoke tokens; {@link JwtDenylist} is checked first.
+ */
+@Component
+public class JwtClaimsCache {
+
+    private final boolean enabled;
+    private final Cache<String, JwtUtil.TokenClaims> cache;
+
+    public JwtClaimsCache(@Value("${jwt.cache.enabled:true}") boolean enabled,
+            @Value("${jwt.cache.max-size:10000}") long maxSize,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, JwtUtil.TokenClaims>() {
+                    @Override
+                    public long expireAfterCreate(String key, JwtUtil.TokenClaims claims, long currentTime) {
+                        return remainingNanos(claims);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, JwtUtil.TokenClaims claims,
+                            long currentTime, long currentDuration) {
+                        return remainingNanos(claims);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, JwtUtil.TokenClaims claims,
+                            long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwtClaims");
+    }
+
+    /**
+     * The key of a token in this cache and in {@link JwtDenylist}.
+     */
+    public static String key(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public JwtUtil.TokenClaims get(String key) {
+        if (!enabled) {
+            return null;
+        }
+        return cache.getIfPresent(key);
+    }
+
+    public void put(String key, JwtUtil.TokenClaims claims) {
+        if (enabled && claims.getExpiration() != null) {
+            cache.put(key, claims);
+        }
+    }
+
+    public void invalidate(String key) {
+        cache.invalidate(key);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Hit, miss and eviction counters since startup, also published as the
+     * {@code cache.*} meters tagged {@code cache=jwtClaims}.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private static long remainingNanos(JwtUtil.TokenClaims claims) {
+        long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+    }
+}
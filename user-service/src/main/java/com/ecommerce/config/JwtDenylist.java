@@ -0,0 +1,58 @@
+package com.ecommerce.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens revoked before their {@code exp}, e.g. on logout, keyed by the same
+ * SHA-256 digest as {@link JwtClaimsCache}. Entries are kept until the token
+ * would have expired anyway, so the list is not size-bounded: evicting one
+ * early would bring a revoked token back. Revocations are held in memory and
+ * only apply to the instance that received them.
+ */
+@Component
+public class JwtDenylist {
+
+    private final Cache<String, Date> revoked = Caffeine.newBuilder()
+            .expireAfter(new Expiry<String, Date>() {
+                @Override
+                public long expireAfterCreate(String key, Date expiration, long currentTime) {
+                    return remainingNanos(expiration);
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, Date expiration,
+                        long currentTime, long currentDuration) {
+                    return remainingNanos(expiration);
+                }
+
+                @Override
+                public long expireAfterRead(String key, Date expiration,
+                        long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+
+    public void revoke(String key, Date expiration) {
+        revoked.put(key, expiration);
+    }
+
+    public boolean isRevoked(String key) {
+        return revoked.getIfPresent(key) != null;
+    }
+
+    public long size() {
+        return revoked.estimatedSize();
+    }
+
+    private static long remainingNanos(Date expiration) {
+        long remainingMillis = expiration.getTime() - System.currentTimeMillis();
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+    }
+}
@@ -2,12 +2,18 @@ package com.ecommerce.config;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
@@ -18,49 +24,109 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @Autowired
+    private JwtClaimsCache claimsCache;
+
+    @Autowired
+    private JwtDenylist denylist;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Built once at startup; both are immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    private Timer generateTimer;
+    private Timer parseCachedTimer;
+    private Timer parseVerifiedTimer;
+
+    @PostConstruct
+    void init() {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+
+        this.generateTimer = Timer.builder("user.jwt.generate")
+                .description("Time spent signing a token")
+                .register(meterRegistry);
+        this.parseCachedTimer = parseTimer("hit");
+        this.parseVerifiedTimer = parseTimer("miss");
     }
 
     public String generateToken(UUID userId, String email) {
+        long start = System.nanoTime();
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expiration);
 
-        return Jwts.builder()
-                .setSubject(userId.toString())
+        String token = Jwts.builder()
+                .subject(userId.toString())
                 .claim("email", email)
-                .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey())
+                .issuedAt(now)
+                .expiration(expiryDate)
+                .signWith(signingKey)
                 .compact();
+        generateTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return token;
     }
 
-    public String getUserIdFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Verify the token once and return everything callers need from it.
+     * Revoked tokens are rejected before anything else; tokens verified
+     * earlier are answered from {@link JwtClaimsCache} until they expire.
+     * Timed as {@code user.jwt.parse}, tagged {@code cache=hit|miss}; tokens
+     * that fail verification are not recorded.
+     *
+     * @throws JwtException if the token was revoked, the signature is invalid or the token has expired
+     */
+    public TokenClaims parseClaims(String token) {
+        if (token == null) {
+            throw new IllegalArgumentException("Token is missing");
+        }
+        long start = System.nanoTime();
+        String key = JwtClaimsCache.key(token);
+        if (denylist.isRevoked(key)) {
+            throw new JwtException("Token has been revoked");
+        }
+
+        TokenClaims cached = claimsCache.get(key);
+        if (cached != null && cached.getExpiration().after(new Date())) {
+            parseCachedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return cached;
+        }
 
-        return claims.getSubject();
+        Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+        TokenClaims verified = new TokenClaims(claims.getSubject(), claims.get("email", String.class),
+                claims.getExpiration());
+        claimsCache.put(key, verified);
+        parseVerifiedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return verified;
     }
 
-    public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Reject a valid token from now until it expires, e.g. on logout.
+     *
+     * @throws JwtException if the token is already invalid, expired or revoked
+     */
+    public void revokeToken(String token) {
+        TokenClaims claims = parseClaims(token);
+        String key = JwtClaimsCache.key(token);
+        denylist.revoke(key, claims.getExpiration());
+        claimsCache.invalidate(key);
+    }
 
-        return claims.get("email", String.class);
+    public String getUserIdFromToken(String token) {
+        return parseClaims(token).getSubject();
+    }
+
+    public String getEmailFromToken(String token) {
+        return parseClaims(token).getEmail();
     }
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
+            parseClaims(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
@@ -69,15 +135,44 @@ public class JwtUtil {
 
     public boolean isTokenExpired(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-
-            return claims.getExpiration().before(new Date());
+            return parseClaims(token).getExpiration().before(new Date());
         } catch (JwtException | IllegalArgumentException e) {
             return true;
         }
     }
-}
\ No newline at end of file
+
+    private Timer parseTimer(String cache) {
+        return Timer.builder("user.jwt.parse")
+                .description("Time spent resolving a token's claims")
+                .tag("cache", cache)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Verified claims of a single token.
+     */
+    public static final class TokenClaims {
+
+        private final String subject;
+        private final String email;
+        private final Date expiration;
+
+        public TokenClaims(String subject, String email, Date expiration) {
+            this.subject = subject;
+            this.email = email;
+            this.expiration = expiration;
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public Date getExpiration() {
+            return expiration;
+        }
+    }
+}
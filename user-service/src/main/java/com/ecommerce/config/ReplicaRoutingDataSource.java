@@ -0,0 +1,156 @@
+package com.ecommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the
+ * primary. Must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * so the connection is picked once the transaction's read-only flag is known.
+ *
+ * <p>A background check measures each replica's replay lag; replicas that lag
+ * more than the limit or cannot be reached are left out until they recover.
+ * Reads fall back to the primary while no replica is healthy, and replicas
+ * only start taking reads after their first successful check.</p>
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final String PRIMARY = "primary";
+
+    public enum Selection {
+        ROUND_ROBIN,
+        LEAST_CONNECTIONS;
+
+        public static Selection parse(String value) {
+            return valueOf(value.trim().toUpperCase().replace('-', '_'));
+        }
+    }
+
+    private final List<HikariDataSource> replicas;
+    private final Selection selection;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private final Duration checkInterval;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ScheduledExecutorService lagMonitor;
+    private volatile List<HikariDataSource> healthyReplicas = List.of();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicas, Selection selection,
+            String lagQuery, Duration maxLag, Duration checkInterval) {
+        this.replicas = List.copyOf(replicas);
+        this.selection = selection;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.checkInterval = checkInterval;
+        this.lagMonitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach(replica -> targets.put(replica.getPoolName(), replica));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        lagMonitor.scheduleWithFixedDelay(this::checkReplicas, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        lagMonitor.shutdownNow();
+        replicas.forEach(HikariDataSource::close);
+    }
+
+    public List<String> getHealthyReplicas() {
+        return healthyReplicas.stream().map(HikariDataSource::getPoolName).toList();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReplicaRoutingContext.isPrimaryForced()) {
+            return PRIMARY;
+        }
+        List<HikariDataSource> candidates = healthyReplicas;
+        if (candidates.isEmpty()) {
+            return PRIMARY;
+        }
+        return choose(candidates).getPoolName();
+    }
+
+    // Private helper methods
+
+    private HikariDataSource choose(List<HikariDataSource> candidates) {
+        if (selection == Selection.LEAST_CONNECTIONS) {
+            return candidates.stream().min(Comparator.comparingInt(ReplicaRoutingDataSource::activeConnections)).get();
+        }
+        return candidates.get(Math.floorMod(nextReplica.getAndIncrement(), candidates.size()));
+    }
+
+    private static int activeConnections(HikariDataSource replica) {
+        HikariPoolMXBean pool = replica.getHikariPoolMXBean();
+        return pool == null ? 0 : pool.getActiveConnections();
+    }
+
+    private void checkReplicas() {
+        List<HikariDataSource> healthy = new ArrayList<>();
+        for (HikariDataSource replica : replicas) {
+            boolean wasHealthy = healthyReplicas.contains(replica);
+            try {
+                double lagSeconds = measureLag(replica);
+                if (lagSeconds <= maxLagSeconds) {
+                    healthy.add(replica);
+                    if (!wasHealthy) {
+                        logger.info("Replica {} is taking reads (lag {}s)", replica.getPoolName(), lagSeconds);
+                    }
+                } else if (wasHealthy) {
+                    logger.warn("Replica {} lags {}s behind the primary; reads go elsewhere",
+                            replica.getPoolName(), lagSeconds);
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (wasHealthy) {
+                    logger.warn("Replica {} is unavailable: {}", replica.getPoolName(), e.getMessage());
+                }
+            }
+        }
+        healthyReplicas = List.copyOf(healthy);
+    }
+
+    private double measureLag(HikariDataSource replica) throws SQLException {
+        try (Connection connection = replica.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            return resultSet.next() ? resultSet.getDouble(1) : 0;
+        }
+    }
+}
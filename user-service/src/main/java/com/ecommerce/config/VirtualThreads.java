@@ -0,0 +1,43 @@
+package com.ecommerce.config;
+
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Executors for the opt-in {@code virtual-threads} profile
+ * ({@code spring.threads.virtual.enabled=true}, Java 21+). The service is
+ * still compiled for Java 17, so the thread-per-task executor is looked up
+ * at runtime; enabling the profile on an older JVM fails at startup.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * A virtual thread per task, without a limit; for callers that admit
+     * work themselves.
+     */
+    static ExecutorService newExecutor(String threadNamePrefix) {
+        ThreadFactory factory = new VirtualThreadTaskExecutor(threadNamePrefix).getVirtualThreadFactory();
+        return newThreadPerTaskExecutor(factory);
+    }
+
+    // Private helper methods
+
+    private static ExecutorService newThreadPerTaskExecutor(ThreadFactory factory) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().findStatic(Executors.class,
+                    "newThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class, ThreadFactory.class));
+            return (ExecutorService) handle.invoke(factory);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Virtual threads require Java 21 or later", e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.ecommerce.grpc;
+
+import com.ecommerce.config.JwtUtil;
+import com.ecommerce.dto.UserResponse;
+import com.ecommerce.proto.UserProto;
+import com.ecommerce.proto.UserServiceGrpc;
+import com.ecommerce.service.UserNotFoundException;
+import com.ecommerce.service.UserService;
+import io.grpc.stub.StreamObserver;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import net.devh.boot.grpc.server.service.GrpcService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.UUID;
+
+/**
+ * gRPC facade over {@link UserService}. {@code ValidateUser} only checks the
+ * token signature and expiry so callers can validate tokens without a
+ * database round trip and without holding the JWT secret themselves.
+ * Failures are answered with fixed messages; unexpected ones are logged here
+ * so exception text never reaches the caller.
+ */
+@GrpcService
+public class UserGrpcService extends UserServiceGrpc.UserServiceImplBase {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserGrpcService.class);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Override
+    public void getUser(UserProto.GetUserRequest request,
+            StreamObserver<UserProto.UserResponse> responseObserver) {
+        UserProto.UserResponse response;
+        UUID userId = parseUserId(request.getUserId());
+        if (userId == null) {
+            response = userFailure("Invalid user ID format");
+        } else {
+            try {
+                UserResponse user = userService.getUserProfile(userId);
+                response = UserProto.UserResponse.newBuilder()
+                        .setSuccess(true)
+                        .setMessage("User found")
+                        .setUser(toProtoUser(user))
+                        .build();
+            } catch (UserNotFoundException e) {
+                response = userFailure("User not found");
+            } catch (Exception e) {
+                logger.error("gRPC GetUser failed for {}", userId, e);
+                response = userFailure("User lookup failed");
+            }
+        }
+
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void validateUser(UserProto.ValidateUserRequest request,
+            StreamObserver<UserProto.ValidationResponse> responseObserver) {
+        UserProto.ValidationResponse.Builder response = UserProto.ValidationResponse.newBuilder();
+        try {
+            String userId = jwtUtil.getUserIdFromToken(request.getToken());
+            response.setValid(true)
+                    .setUserId(userId)
+                    .setMessage("Token is valid");
+        } catch (ExpiredJwtException e) {
+            response.setValid(false).setMessage("Token has expired");
+        } catch (JwtException | IllegalArgumentException e) {
+            response.setValid(false).setMessage("Invalid token");
+        }
+
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void updateUserPoints(UserProto.UpdatePointsRequest request,
+            StreamObserver<UserProto.UpdatePointsResponse> responseObserver) {
+        UserProto.UpdatePointsResponse.Builder response = UserProto.UpdatePointsResponse.newBuilder();
+        UUID userId = parseUserId(request.getUserId());
+        if (userId == null) {
+            response.setSuccess(false).setMessage("Invalid user ID format");
+        } else {
+            try {
+                int newBalance = userService.updateLoyaltyPoints(userId, request.getPoints(), request.getOperation());
+                response.setSuccess(true)
+                        .setMessage("Loyalty points updated successfully")
+                        .setNewBalance(newBalance);
+            } catch (UserNotFoundException e) {
+                response.setSuccess(false).setMessage("User not found");
+            } catch (IllegalArgumentException e) {
+                response.setSuccess(false).setMessage("Invalid loyalty points update");
+            } catch (Exception e) {
+                logger.error("gRPC UpdateUserPoints failed for {}", userId, e);
+                response.setSuccess(false).setMessage("Loyalty points update failed");
+            }
+        }
+
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    // Private helper methods
+
+    // Null when the ID is not a UUID
+    private static UUID parseUserId(String userId) {
+        try {
+            return UUID.fromString(userId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private UserProto.UserResponse userFailure(String message) {
+        return UserProto.UserResponse.newBuilder()
+                .setSuccess(false)
+                .setMessage(message)
+                .build();
+    }
+
+    private UserProto.User toProtoUser(UserResponse user) {
+        UserProto.User.Builder builder = UserProto.User.newBuilder()
+                .setId(user.getId().toString())
+                .setEmail(nullToEmpty(user.getEmail()))
+                .setFirstName(nullToEmpty(user.getFirstName()))
+                .setLastName(nullToEmpty(user.getLastName()))
+                .setPhone(nullToEmpty(user.getPhone()))
+                .setAddress(nullToEmpty(user.getAddress()));
+        if (user.getLoyaltyPoints() != null) {
+            builder.setLoyaltyPoints(user.getLoyaltyPoints());
+        }
+        if (user.getCreatedAt() != null) {
+            builder.setCreatedAt(user.getCreatedAt().toString());
+        }
+        if (user.getUpdatedAt() != null) {
+            builder.setUpdatedAt(user.getUpdatedAt().toString());
+        }
+        return builder.build();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,46 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A loyalty ledger flush that has been applied to {@code users}. Written in
+ * the same transaction as the point updates, so replaying a ledger log whose
+ * batch is recorded here is skipped instead of crediting the points twice.
+ * Only written through JDBC by the ledger; mapped so the table is created.
+ */
+@Entity
+@Table(name = "loyalty_ledger_batches", indexes = @Index(name = "idx_loyalty_ledger_batches_applied_at",
+        columnList = "applied_at"))
+public class LoyaltyLedgerBatch {
+
+    @Id
+    @Column(name = "batch_id")
+    private UUID batchId;
+
+    @Column(name = "applied_at", nullable = false)
+    private LocalDateTime appliedAt;
+
+    // Constructors
+    public LoyaltyLedgerBatch() {
+    }
+
+    // Getters and Setters
+    public UUID getBatchId() {
+        return batchId;
+    }
+
+    public void setBatchId(UUID batchId) {
+        this.batchId = batchId;
+    }
+
+    public LocalDateTime getAppliedAt() {
+        return appliedAt;
+    }
+
+    public void setAppliedAt(LocalDateTime appliedAt) {
+        this.appliedAt = appliedAt;
+    }
+}
@@ -2,7 +2,11 @@ package com.ecommerce.repository;
 
 import com.ecommerce.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -13,4 +17,20 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") UUID id, @Param("password") String password);
+
+    /**
+     * Apply a loyalty point delta in a single statement without loading the
+     * entity. The balance never drops below zero.
+     *
+     * @return the new balance, or {@code null} if no user has this id
+     */
+    @Transactional
+    @Query(value = "UPDATE users SET loyalty_points = GREATEST(0, COALESCE(loyalty_points, 0) + :delta), "
+            + "updated_at = LOCALTIMESTAMP WHERE id = :id RETURNING loyalty_points", nativeQuery = true)
+    Integer addLoyaltyPoints(@Param("id") UUID id, @Param("delta") int delta);
 }
\ No newline at end of file
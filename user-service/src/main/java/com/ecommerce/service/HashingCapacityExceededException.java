@@ -0,0 +1,12 @@
+package com.ecommerce.service;
+
+/**
+ * Thrown when the password hashing pool cannot accept more work. Callers
+ * should answer with 503 so clients back off instead of queueing.
+ */
+public class HashingCapacityExceededException extends RuntimeException {
+
+    public HashingCapacityExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,470 @@
+package com.ecommerce.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Optional write-behind mode for loyalty points. Deltas are coalesced per user
+ * in memory and written by a scheduled flusher as one JDBC batch per interval,
+ * so a burst of N grants to a hot user costs one row update instead of N.
+ *
+ * <p>Every delta is appended to a local log before it is acknowledged and the
+ * log is replayed at startup, so accepted points survive a restart. Appends
+ * are forced to disk unless {@code loyalty.write-behind.fsync} is off, in
+ * which case they only survive a process crash, not a host crash. Forcing is
+ * a group commit: writers append under the log lock, then wait outside it
+ * for a force, and one force covers every append made before it started. Each flush
+ * ends its log with a batch id that is recorded in
+ * {@code loyalty_ledger_batches} in the same transaction as the updates, so a
+ * log whose batch already committed is not replayed. The projected balance
+ * assumes a user's point traffic is handled by one instance while the mode
+ * is enabled.</p>
+ *
+ * <p>Locks are {@link ReentrantLock}s rather than monitors: the log writes and
+ * the JDBC flush block while holding them, which would pin the carrier thread
+ * under the virtual-threads profile.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "loyalty.write-behind.enabled", havingValue = "true")
+public class LoyaltyPointsLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoyaltyPointsLedger.class);
+
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE users SET loyalty_points = GREATEST(0, COALESCE(loyalty_points, 0) + ?), "
+                    + "updated_at = LOCALTIMESTAMP WHERE id = ?";
+    private static final String SELECT_BALANCE_SQL = "SELECT loyalty_points FROM users WHERE id = ?";
+    private static final String RECORD_BATCH_SQL =
+            "INSERT INTO loyalty_ledger_batches (batch_id, applied_at) VALUES (?, ?)";
+    private static final String BATCH_APPLIED_SQL = "SELECT COUNT(*) FROM loyalty_ledger_batches WHERE batch_id = ?";
+    private static final String PRUNE_BATCHES_SQL = "DELETE FROM loyalty_ledger_batches WHERE applied_at < ?";
+
+    // Log line closing the entries a flush covers
+    private static final String BATCH_PREFIX = "batch ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Path activeLog;
+    private final Path flushingLog;
+    private final boolean fsync;
+    private final Duration batchRetention;
+
+    private final ConcurrentHashMap<UUID, Account> accounts = new ConcurrentHashMap<>();
+    // Appends share the read lock; rotation + drain takes the write lock so no
+    // delta can land in the in-memory batch without being in the rotated log
+    private final ReadWriteLock rotationLock = new ReentrantReadWriteLock();
+    private final Lock flushLock = new ReentrantLock();
+    // Guards logChannel and appendedSeq
+    private final Lock logLock = new ReentrantLock();
+    private FileChannel logChannel;
+    private long appendedSeq;
+    // Held by the writer forcing the log for everyone waiting on it
+    private final Lock forceLock = new ReentrantLock();
+    private volatile long forcedSeq;
+    // A batch whose transaction failed in a way that may still have committed,
+    // e.g. a lost connection during commit; guarded by flushLock
+    private UUID failedBatchId;
+    private List<Object[]> failedBatch;
+
+    public LoyaltyPointsLedger(JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Value("${loyalty.write-behind.log-dir:./data}") String logDir,
+            @Value("${loyalty.write-behind.fsync:true}") boolean fsync,
+            @Value("${loyalty.write-behind.batch-retention:7d}") Duration batchRetention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.activeLog = Paths.get(logDir, "loyalty-ledger.log");
+        this.flushingLog = Paths.get(logDir, "loyalty-ledger.flushing.log");
+        this.fsync = fsync;
+        this.batchRetention = batchRetention;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        Files.createDirectories(activeLog.getParent());
+        replay(flushingLog);
+        replay(activeLog);
+        logChannel = openLog();
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        flush();
+        // Wait out appends still forcing the log
+        rotationLock.writeLock().lock();
+        try {
+            logChannel.close();
+        } finally {
+            rotationLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Record a point delta and return the projected balance. Subtractions are
+     * clamped against the projection so the balance never goes below zero.
+     */
+    public int apply(UUID userId, int delta) {
+        while (true) {
+            Account account = accounts.get(userId);
+            if (account == null) {
+                accounts.putIfAbsent(userId, new Account(loadBalance(userId)));
+                continue;
+            }
+
+            // The read lock is held until the append is forced, so rotation
+            // never closes the log with an unforced entry in it
+            rotationLock.readLock().lock();
+            try {
+                long seq;
+                int projected;
+                account.lock.lock();
+                try {
+                    if (accounts.get(userId) != account) {
+                        // Dropped by the flusher after going idle; reload it
+                        continue;
+                    }
+                    int applied = Math.max(delta, -account.projected());
+                    seq = applied != 0 ? append(userId, applied) : 0;
+                    account.pending += applied;
+                    projected = account.projected();
+                } finally {
+                    account.lock.unlock();
+                }
+                if (fsync) {
+                    awaitForced(seq);
+                }
+                return projected;
+            } finally {
+                rotationLock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Write all pending deltas in a single batched transaction.
+     */
+    @Scheduled(fixedDelayString = "${loyalty.write-behind.flush-interval-ms:1000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * The projected balance of a user with deltas held here, which may not
+     * have reached the database yet.
+     */
+    public OptionalInt projectedBalance(UUID userId) {
+        Account account = accounts.get(userId);
+        if (account == null) {
+            return OptionalInt.empty();
+        }
+        account.lock.lock();
+        try {
+            return OptionalInt.of(account.projected());
+        } finally {
+            account.lock.unlock();
+        }
+    }
+
+    public int pendingUsers() {
+        return accounts.size();
+    }
+
+    // Private helper methods
+
+    private void flushPending() {
+        if (failedBatchId != null && !settleFailedBatch()) {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<>();
+
+        rotationLock.writeLock().lock();
+        try {
+            logLock.lock();
+            try {
+                logChannel.close();
+                if (Files.exists(flushingLog)) {
+                    // A previous flush failed; keep its entries ahead of the new ones
+                    Files.write(flushingLog, Files.readAllBytes(activeLog), StandardOpenOption.APPEND);
+                    Files.delete(activeLog);
+                } else {
+                    Files.move(activeLog, flushingLog, StandardCopyOption.ATOMIC_MOVE);
+                }
+                logChannel = openLog();
+            } finally {
+                logLock.unlock();
+            }
+
+            accounts.forEach((userId, account) -> {
+                account.lock.lock();
+                try {
+                    if (account.pending == 0) {
+                        // Idle for a whole interval; reload the baseline on next use
+                        accounts.remove(userId, account);
+                    } else {
+                        batch.add(new Object[] { account.pending, userId });
+                        account.baseline = account.projected();
+                        account.pending = 0;
+                    }
+                } finally {
+                    account.lock.unlock();
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to rotate loyalty ledger log", e);
+        } finally {
+            rotationLock.writeLock().unlock();
+        }
+
+        if (!batch.isEmpty()) {
+            // Everything in the flushing log is either in this batch or already applied
+            UUID batchId = UUID.randomUUID();
+            try {
+                appendBatchId(flushingLog, batchId);
+                applyBatch(batchId, batch);
+                logger.debug("Flushed {} coalesced loyalty point updates", batch.size());
+            } catch (IOException e) {
+                restore(batch);
+                throw new UncheckedIOException("Failed to write loyalty ledger batch id", e);
+            } catch (RuntimeException e) {
+                // Entries stay in the flushing log; settle the batch before the next flush retries them
+                logger.warn("Loyalty ledger flush failed, will retry: {}", e.getMessage());
+                failedBatchId = batchId;
+                failedBatch = batch;
+                settleFailedBatch();
+                return;
+            }
+        }
+
+        try {
+            Files.deleteIfExists(flushingLog);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to clear loyalty ledger log", e);
+        }
+    }
+
+    // Check whether the failed batch committed after all, the same check replay
+    // makes: if it did, the flushing log is fully applied and goes; otherwise
+    // its deltas are put back. Returns false while the outcome is still unknown.
+    private boolean settleFailedBatch() {
+        try {
+            if (isApplied(failedBatchId)) {
+                Files.deleteIfExists(flushingLog);
+                logger.info("Loyalty ledger batch {} was applied despite the failure", failedBatchId);
+            } else {
+                restore(failedBatch);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not settle loyalty ledger batch {}, will retry: {}", failedBatchId, e.getMessage());
+            return false;
+        }
+        failedBatchId = null;
+        failedBatch = null;
+        return true;
+    }
+
+    private void restore(List<Object[]> batch) {
+        for (Object[] entry : batch) {
+            int delta = (Integer) entry[0];
+            Account account = accounts.get((UUID) entry[1]);
+            if (account != null) {
+                account.lock.lock();
+                try {
+                    account.pending += delta;
+                    account.baseline -= delta;
+                } finally {
+                    account.lock.unlock();
+                }
+            }
+        }
+    }
+
+    private int loadBalance(UUID userId) {
+        try {
+            Integer balance = jdbcTemplate.queryForObject(SELECT_BALANCE_SQL, Integer.class, userId);
+            return balance == null ? 0 : balance;
+        } catch (EmptyResultDataAccessException e) {
+            throw new UserNotFoundException();
+        }
+    }
+
+    // Apply a batch and record its id in one transaction, dropping ids old
+    // enough that no log can still refer to them
+    private void applyBatch(UUID batchId, List<Object[]> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, batch);
+            LocalDateTime now = LocalDateTime.now();
+            jdbcTemplate.update(RECORD_BATCH_SQL, batchId, now);
+            jdbcTemplate.update(PRUNE_BATCHES_SQL, now.minus(batchRetention));
+        });
+    }
+
+    private boolean isApplied(UUID batchId) {
+        Integer count = jdbcTemplate.queryForObject(BATCH_APPLIED_SQL, Integer.class, batchId);
+        return count != null && count > 0;
+    }
+
+    // Returns the append's sequence number for awaitForced
+    private long append(UUID userId, int delta) {
+        logLock.lock();
+        try {
+            write(logChannel, userId + "," + delta);
+            return ++appendedSeq;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to loyalty ledger log", e);
+        } finally {
+            logLock.unlock();
+        }
+    }
+
+    // Wait until the append numbered seq is on disk. Writers queue on
+    // forceLock; whoever gets it forces everything appended so far, so the
+    // writers behind it usually find their append already covered.
+    private void awaitForced(long seq) {
+        if (forcedSeq >= seq) {
+            return;
+        }
+        forceLock.lock();
+        try {
+            if (forcedSeq >= seq) {
+                return;
+            }
+            long covered;
+            FileChannel channel;
+            logLock.lock();
+            try {
+                covered = appendedSeq;
+                channel = logChannel;
+            } finally {
+                logLock.unlock();
+            }
+            channel.force(false);
+            forcedSeq = covered;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to force loyalty ledger log", e);
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    // Always forced: the batch id must be on disk before the batch can commit
+    private static void appendBatchId(Path log, UUID batchId) throws IOException {
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            write(channel, BATCH_PREFIX + batchId);
+            channel.force(false);
+        }
+    }
+
+    private static void write(FileChannel channel, String line) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private FileChannel openLog() throws IOException {
+        return FileChannel.open(activeLog, StandardOpenOption.CREATE, StandardOpenOption.APPEND,
+                StandardOpenOption.WRITE);
+    }
+
+    private void replay(Path log) throws IOException {
+        if (!Files.exists(log)) {
+            return;
+        }
+
+        Map<UUID, Integer> deltas = new HashMap<>();
+        // The batch id covering every entry, i.e. one written after the last entry
+        UUID batchId = null;
+        for (String line : Files.readAllLines(log, StandardCharsets.UTF_8)) {
+            if (line.startsWith(BATCH_PREFIX)) {
+                try {
+                    batchId = UUID.fromString(line.substring(BATCH_PREFIX.length()));
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Skipping malformed loyalty ledger batch id: {}", line);
+                }
+                continue;
+            }
+            batchId = null;
+            int separator = line.indexOf(',');
+            if (separator < 0) {
+                logger.warn("Skipping malformed loyalty ledger entry: {}", line);
+                continue;
+            }
+            try {
+                deltas.merge(UUID.fromString(line.substring(0, separator)),
+                        Integer.parseInt(line.substring(separator + 1)), Integer::sum);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Skipping malformed loyalty ledger entry: {}", line);
+            }
+        }
+
+        List<Object[]> batch = new ArrayList<>();
+        deltas.forEach((userId, delta) -> batch.add(new Object[] { delta, userId }));
+        if (!batch.isEmpty()) {
+            if (batchId == null) {
+                batchId = UUID.randomUUID();
+                appendBatchId(log, batchId);
+            }
+            if (isApplied(batchId)) {
+                logger.info("Skipped {}; its batch {} was already applied", log, batchId);
+            } else {
+                applyBatch(batchId, batch);
+                logger.info("Replayed {} loyalty point updates from {}", batch.size(), log);
+            }
+        }
+        Files.delete(log);
+    }
+
+    private static final class Account {
+
+        private final Lock lock = new ReentrantLock();
+        private int baseline;
+        private int pending;
+
+        private Account(int baseline) {
+            this.baseline = baseline;
+        }
+
+        private int projected() {
+            return baseline + pending;
+        }
+    }
+}
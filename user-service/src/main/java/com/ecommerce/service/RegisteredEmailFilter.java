@@ -0,0 +1,102 @@
+package com.ecommerce.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of registered emails. A negative answer means the email has
+ * definitely never been registered through this instance or seen at startup,
+ * so registration can go straight to the insert. A positive answer is only a
+ * "maybe" and must be confirmed against the database.
+ */
+@Component
+public class RegisteredEmailFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegisteredEmailFilter.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    public RegisteredEmailFilter(JdbcTemplate jdbcTemplate,
+            @Value("${user.registration.bloom.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${user.registration.bloom.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.jdbcTemplate = jdbcTemplate;
+
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate)
+                / (Math.log(2) * Math.log(2)));
+        this.bitCount = Math.max(64, optimalBits);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.bits = new AtomicLongArray((int) ((bitCount + 63) / 64));
+    }
+
+    @PostConstruct
+    void load() {
+        long[] loaded = { 0 };
+        jdbcTemplate.query("SELECT email FROM users", resultSet -> {
+            put(resultSet.getString(1));
+            loaded[0]++;
+        });
+        logger.info("Loaded {} registered emails into the bloom filter", loaded[0]);
+    }
+
+    public boolean mightContain(String email) {
+        long[] hashes = hash(email);
+        for (int i = 0; i < hashCount; i++) {
+            long index = bitIndex(hashes, i);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void put(String email) {
+        long[] hashes = hash(email);
+        for (int i = 0; i < hashCount; i++) {
+            long index = bitIndex(hashes, i);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    // Private helper methods
+
+    private long bitIndex(long[] hashes, int i) {
+        return Math.floorMod(hashes[0] + i * hashes[1], bitCount);
+    }
+
+    private static long[] hash(String value) {
+        // 64-bit FNV-1a, then two SplitMix64 rounds for double hashing
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        long h1 = mix(h);
+        long h2 = mix(h1) | 1L;
+        return new long[] { h1, h2 };
+    }
+
+    private static long mix(long z) {
+        z += 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
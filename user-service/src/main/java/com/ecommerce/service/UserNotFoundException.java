@@ -0,0 +1,12 @@
+package com.ecommerce.service;
+
+/**
+ * Thrown when no user exists for the given ID or email. Kept apart from other
+ * failures so the gRPC facade can report it without echoing exception text.
+ */
+public class UserNotFoundException extends RuntimeException {
+
+    public UserNotFoundException() {
+        super("User not found");
+    }
+}
@@ -1,81 +1,116 @@
 package com.ecommerce.service;
 
 import com.ecommerce.config.JwtUtil;
+import com.ecommerce.config.ReadYourWritesTracker;
+import com.ecommerce.config.ReplicaRoutingContext;
 import com.ecommerce.dto.UserLoginRequest;
 import com.ecommerce.dto.UserRegistrationRequest;
 import com.ecommerce.dto.UserResponse;
 import com.ecommerce.model.User;
 import com.ecommerce.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.SQLException;
 import java.util.Optional;
 import java.util.UUID;
 
 @Service
 public class UserService {
 
+    public static final String PROFILE_CACHE = "userProfiles";
+
+    // SQLSTATE for unique_violation (PostgreSQL and H2)
+    private static final String UNIQUE_VIOLATION = "23505";
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
     @Autowired
     private JwtUtil jwtUtil;
 
-    public UserResponse registerUser(UserRegistrationRequest request) {
-        // Check if user already exists
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new RuntimeException("User with email " + request.getEmail() + " already exists");
-        }
+    @Autowired
+    private RegisteredEmailFilter registeredEmails;
 
-        // Create new user
-        User user = new User();
-        user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-        user.setFirstName(request.getFirstName());
-        user.setLastName(request.getLastName());
-        user.setPhone(request.getPhone());
-        user.setAddress(request.getAddress());
-        user.setLoyaltyPoints(0);
+    @Autowired
+    private ReadYourWritesTracker readYourWrites;
 
-        User savedUser = userRepository.save(user);
-        return new UserResponse(savedUser);
-    }
+    @Autowired
+    private MeterRegistry meterRegistry;
 
-    public String loginUser(UserLoginRequest request) {
-        Optional<User> userOptional = userRepository.findByEmail(request.getEmail());
+    // Present only when loyalty.write-behind.enabled=true
+    @Autowired(required = false)
+    private LoyaltyPointsLedger loyaltyPointsLedger;
 
-        if (userOptional.isEmpty()) {
-            throw new RuntimeException("Invalid email or password");
+    /**
+     * Timed as {@code user.register}, tagged by outcome.
+     */
+    public UserResponse registerUser(UserRegistrationRequest request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            UserResponse response = register(request);
+            sample.stop(timer("user.register", "success"));
+            return response;
+        } catch (RuntimeException e) {
+            sample.stop(timer("user.register", outcomeOf(e)));
+            throw e;
         }
+    }
 
-        User user = userOptional.get();
-
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-            throw new RuntimeException("Invalid email or password");
+    /**
+     * Timed as {@code user.login}, tagged by outcome.
+     */
+    public String loginUser(UserLoginRequest request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            String token = login(request);
+            sample.stop(timer("user.login", "success"));
+            return token;
+        } catch (RuntimeException e) {
+            sample.stop(timer("user.login", outcomeOf(e)));
+            throw e;
         }
-
-        return jwtUtil.generateToken(user.getId(), user.getEmail());
     }
 
+    @Cacheable(cacheNames = PROFILE_CACHE, key = "#userId")
     public UserResponse getUserProfile(UUID userId) {
-        Optional<User> userOptional = userRepository.findById(userId);
+        // Evicted entries are reloaded here; a stale replica row would be cached
+        Optional<User> userOptional;
+        try (ReplicaRoutingContext.Scope sticky = readYourWrites.stickyScope(userKey(userId))) {
+            userOptional = userRepository.findById(userId);
+        }
 
         if (userOptional.isEmpty()) {
-            throw new RuntimeException("User not found");
+            throw new UserNotFoundException();
         }
 
-        return new UserResponse(userOptional.get());
+        UserResponse response = new UserResponse(userOptional.get());
+        if (loyaltyPointsLedger != null) {
+            // Points granted in write-behind mode may not be flushed yet
+            loyaltyPointsLedger.projectedBalance(userId).ifPresent(response::setLoyaltyPoints);
+        }
+        return response;
     }
 
+    // Read-write transaction so the read-modify-write runs on the primary
+    @Transactional
+    @CachePut(cacheNames = PROFILE_CACHE, key = "#userId")
     public UserResponse updateUserProfile(UUID userId, UserRegistrationRequest request) {
         Optional<User> userOptional = userRepository.findById(userId);
 
         if (userOptional.isEmpty()) {
-            throw new RuntimeException("User not found");
+            throw new UserNotFoundException();
         }
 
         User user = userOptional.get();
@@ -95,40 +130,166 @@ public class UserService {
         }
 
         User updatedUser = userRepository.save(user);
+        recordWrite(updatedUser);
         return new UserResponse(updatedUser);
     }
 
+    @Transactional
+    @CacheEvict(cacheNames = PROFILE_CACHE, key = "#userId")
     public boolean deleteUser(UUID userId) {
         if (!userRepository.existsById(userId)) {
-            throw new RuntimeException("User not found");
+            throw new UserNotFoundException();
         }
 
         userRepository.deleteById(userId);
+        readYourWrites.recordWrite(userKey(userId));
         return true;
     }
 
     public User findById(UUID userId) {
-        return userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        try (ReplicaRoutingContext.Scope sticky = readYourWrites.stickyScope(userKey(userId))) {
+            return userRepository.findById(userId)
+                    .orElseThrow(UserNotFoundException::new);
+        }
     }
 
     public User findByEmail(String email) {
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        try (ReplicaRoutingContext.Scope sticky = readYourWrites.stickyScope(emailKey(email))) {
+            return userRepository.findByEmail(email)
+                    .orElseThrow(UserNotFoundException::new);
+        }
     }
 
-    public boolean updateLoyaltyPoints(UUID userId, Integer points, String operation) {
-        User user = findById(userId);
-
+    @CacheEvict(cacheNames = PROFILE_CACHE, key = "#userId")
+    public int updateLoyaltyPoints(UUID userId, Integer points, String operation) {
+        int delta;
         if ("ADD".equals(operation)) {
-            user.setLoyaltyPoints(user.getLoyaltyPoints() + points);
+            delta = points;
         } else if ("SUBTRACT".equals(operation)) {
-            user.setLoyaltyPoints(Math.max(0, user.getLoyaltyPoints() - points));
+            delta = -points;
         } else {
-            throw new RuntimeException("Invalid operation. Use ADD or SUBTRACT");
+            throw new IllegalArgumentException("Invalid operation. Use ADD or SUBTRACT");
         }
 
-        userRepository.save(user);
-        return true;
+        readYourWrites.recordWrite(userKey(userId));
+        if (loyaltyPointsLedger != null) {
+            return loyaltyPointsLedger.apply(userId, delta);
+        }
+
+        Integer newBalance = userRepository.addLoyaltyPoints(userId, delta);
+        if (newBalance == null) {
+            throw new UserNotFoundException();
+        }
+        return newBalance;
+    }
+
+    // Private helper methods
+
+    private UserResponse register(UserRegistrationRequest request) {
+        // Only confirm against the database when the email may already be taken;
+        // this skips the BCrypt hash for obvious duplicates
+        if (registeredEmails.mightContain(request.getEmail()) && userRepository.existsByEmail(request.getEmail())) {
+            throw duplicateEmail(request.getEmail());
+        }
+
+        // Create new user
+        User user = new User();
+        user.setEmail(request.getEmail());
+        user.setPassword(passwordHasher.encode(request.getPassword()));
+        user.setFirstName(request.getFirstName());
+        user.setLastName(request.getLastName());
+        user.setPhone(request.getPhone());
+        user.setAddress(request.getAddress());
+        user.setLoyaltyPoints(0);
+
+        // The unique index on users.email is the real duplicate check
+        User savedUser;
+        try {
+            savedUser = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            if (isUniqueViolation(e)) {
+                registeredEmails.put(request.getEmail());
+                throw duplicateEmail(request.getEmail());
+            }
+            throw e;
+        }
+
+        registeredEmails.put(savedUser.getEmail());
+        recordWrite(savedUser);
+        return new UserResponse(savedUser);
+    }
+
+    private String login(UserLoginRequest request) {
+        Optional<User> userOptional;
+        // A login right after registration must not miss the new row on a replica
+        try (ReplicaRoutingContext.Scope sticky = readYourWrites.stickyScope(emailKey(request.getEmail()))) {
+            userOptional = userRepository.findByEmail(request.getEmail());
+        }
+
+        if (userOptional.isEmpty()) {
+            throw new RuntimeException("Invalid email or password");
+        }
+
+        User user = userOptional.get();
+
+        if (!passwordHasher.matches(request.getPassword(), user.getPassword())) {
+            throw new RuntimeException("Invalid email or password");
+        }
+
+        // Re-hash at the current work factor while the raw password is at hand
+        if (passwordHasher.needsUpgrade(user.getPassword())) {
+            try {
+                userRepository.updatePassword(user.getId(), passwordHasher.encode(request.getPassword()));
+                recordWrite(user);
+            } catch (HashingCapacityExceededException e) {
+                // Leave the old hash in place; it is upgraded on a later login
+            }
+        }
+
+        return jwtUtil.generateToken(user.getId(), user.getEmail());
+    }
+
+    // Keep this user's reads on the primary for a while
+    private void recordWrite(User user) {
+        readYourWrites.recordWrite(userKey(user.getId()));
+        readYourWrites.recordWrite(emailKey(user.getEmail()));
+    }
+
+    private static String userKey(UUID userId) {
+        return "user:" + userId;
+    }
+
+    private static String emailKey(String email) {
+        return "email:" + email;
+    }
+
+    private Timer timer(String name, String outcome) {
+        return Timer.builder(name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    // Duplicate emails and bad credentials are plain RuntimeExceptions
+    private static String outcomeOf(RuntimeException e) {
+        if (e instanceof HashingCapacityExceededException) {
+            return "busy";
+        }
+        if (e instanceof DataAccessException) {
+            return "error";
+        }
+        return "rejected";
+    }
+
+    private RuntimeException duplicateEmail(String email) {
+        return new RuntimeException("User with email " + email + " already exists");
+    }
+
+    private boolean isUniqueViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && UNIQUE_VIOLATION.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
     }
-}
\ No newline at end of file
+}